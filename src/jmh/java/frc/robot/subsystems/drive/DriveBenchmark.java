@@ -0,0 +1,88 @@
+package frc.robot.subsystems.drive;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import frc.robot.Constants.DriveConstants;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the per-cycle drive math: integrating a batch of odometry frames into the pose
+ * estimator and turning chassis speeds into module setpoints. Drive runs on no-op module IO and a
+ * gyro stub, so only the robot code is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DriveBenchmark {
+  private static final double LOOP_PERIOD_SECS = 0.02;
+
+  /** Frames per cycle, 5 matches 250 Hz odometry on a CAN FD bus. */
+  @Param({"1", "5"})
+  public int samplesPerCycle;
+
+  @Param({"true", "false"})
+  public boolean gyroConnected;
+
+  private Drive drive;
+  private final OdometryFrame frame = new OdometryFrame(DriveConstants.ODOMETRY_FRAME_CAPACITY);
+  private final ChassisSpeeds speeds = new ChassisSpeeds(3.0, 1.5, 2.0);
+  private double timestamp = 0.0;
+  private double distanceMeters = 0.0;
+  private double angleRad = 0.0;
+
+  @Setup
+  public void setup() {
+    HAL.initialize(500, 0);
+    drive =
+        new Drive(
+            new GyroIO() {
+              @Override
+              public void updateInputs(GyroIOInputs inputs) {
+                inputs.connected = gyroConnected;
+              }
+            },
+            new ModuleIO() {},
+            new ModuleIO() {},
+            new ModuleIO() {},
+            new ModuleIO() {});
+    drive.periodic(); // Pulls the gyro connection state into the drive
+  }
+
+  @Benchmark
+  public void updateOdometry() {
+    // The robot keeps moving, so every frame is new and old pose history is evicted
+    frame.clear();
+    double sampleTime = LOOP_PERIOD_SECS / samplesPerCycle;
+    for (int i = 0; i < samplesPerCycle; i++) {
+      timestamp += sampleTime;
+      distanceMeters += 0.01;
+      angleRad += 0.002;
+      int index = frame.addFrame(timestamp);
+      for (int module = 0; module < OdometryFrame.MODULE_COUNT; module++) {
+        frame.set(index, OdometryFrame.Column.DRIVE_POSITION, module, distanceMeters);
+        frame.set(index, OdometryFrame.Column.TURN_POSITION, module, angleRad);
+      }
+      frame.set(index, OdometryFrame.Column.YAW, 0, angleRad);
+    }
+    drive.updateOdometry(frame);
+  }
+
+  @Benchmark
+  public void runVelocity() {
+    drive.runVelocity(speeds);
+  }
+}
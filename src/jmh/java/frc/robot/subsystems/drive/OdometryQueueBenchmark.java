@@ -0,0 +1,114 @@
+package frc.robot.subsystems.drive;
+
+import frc.robot.Constants.DriveConstants;
+import frc.robot.subsystems.drive.OdometryFrame.Column;
+import frc.robot.util.DoubleRingBuffer;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks one cycle of odometry queue traffic: the samples of a 20 ms loop are offered and then
+ * drained into an {@link OdometryFrame} by the same code {@link PhoenixOdometryThread#poll} uses.
+ * The boxed {@link ArrayBlockingQueue} drain that the ring buffer replaced is kept as a baseline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OdometryQueueBenchmark {
+  // Drive and turn position for each module plus the gyro yaw
+  private static final int SIGNAL_COUNT = 2 * OdometryFrame.MODULE_COUNT + 1;
+
+  @Param({"1", "5"})
+  public int samplesPerCycle;
+
+  private final DoubleRingBuffer frames =
+      new DoubleRingBuffer(DriveConstants.ODOMETRY_FRAME_CAPACITY, 1 + SIGNAL_COUNT);
+  private final double[] sampledFrame = new double[1 + SIGNAL_COUNT];
+  private final double[] polledFrames =
+      new double[DriveConstants.ODOMETRY_FRAME_CAPACITY * (1 + SIGNAL_COUNT)];
+  private final OdometryFrame batch = new OdometryFrame(DriveConstants.ODOMETRY_FRAME_CAPACITY);
+
+  private final Queue<Double> timestampQueue = new ArrayBlockingQueue<>(20);
+  private final Queue<Double>[] signalQueues = createQueues();
+
+  private Column[] columns;
+  private int[] modules;
+  private double[] scales;
+  private double sampleValue = 0.0;
+
+  @SuppressWarnings("unchecked")
+  private static Queue<Double>[] createQueues() {
+    Queue<Double>[] queues = new Queue[SIGNAL_COUNT];
+    for (int i = 0; i < SIGNAL_COUNT; i++) {
+      queues[i] = new ArrayBlockingQueue<>(20);
+    }
+    return queues;
+  }
+
+  @Setup
+  public void setup() {
+    columns = new Column[SIGNAL_COUNT];
+    modules = new int[SIGNAL_COUNT];
+    scales = new double[SIGNAL_COUNT];
+    for (int module = 0; module < OdometryFrame.MODULE_COUNT; module++) {
+      columns[2 * module] = Column.DRIVE_POSITION;
+      modules[2 * module] = module;
+      columns[2 * module + 1] = Column.TURN_POSITION;
+      modules[2 * module + 1] = module;
+    }
+    columns[SIGNAL_COUNT - 1] = Column.YAW;
+    Arrays.fill(scales, 1.0);
+  }
+
+  @Benchmark
+  public OdometryFrame ringBuffer() {
+    for (int sample = 0; sample < samplesPerCycle; sample++) {
+      sampledFrame[0] = sampleValue;
+      for (int i = 0; i < SIGNAL_COUNT; i++) {
+        sampledFrame[1 + i] = sampleValue + i;
+      }
+      frames.offer(sampledFrame);
+      sampleValue += 0.001;
+    }
+
+    batch.clear();
+    PhoenixOdometryThread.drain(frames, polledFrames, columns, modules, scales, batch);
+    return batch;
+  }
+
+  @Benchmark
+  public void boxedQueues(Blackhole blackhole) {
+    for (int sample = 0; sample < samplesPerCycle; sample++) {
+      timestampQueue.offer(sampleValue);
+      for (int i = 0; i < SIGNAL_COUNT; i++) {
+        signalQueues[i].offer(sampleValue + i);
+      }
+      sampleValue += 0.001;
+    }
+
+    // Drain the way ModuleIOTalonFX and GyroIOPigeon2 used to
+    blackhole.consume(timestampQueue.stream().mapToDouble(Double::doubleValue).toArray());
+    timestampQueue.clear();
+    for (Queue<Double> queue : signalQueues) {
+      blackhole.consume(queue.stream().mapToDouble(Double::doubleValue).toArray());
+      queue.clear();
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package frc.robot.util.limelight;
+
+import edu.wpi.first.networktables.NetworkTableInstance;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks reading Limelight results the way the robot loop does. The values a camera would
+ * publish are written to the local NetworkTables instance, so the NT read and the parsing are
+ * measured together without a camera on the network.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LimelightBenchmark {
+  private static final String LIMELIGHT_NAME = "limelight-bench";
+
+  @Param({"1", "4"})
+  public int tagCount;
+
+  private double[] botpose;
+  private final LimelightHelpers.PoseEstimate reusedEstimate = new LimelightHelpers.PoseEstimate();
+
+  @Setup
+  public void setup() throws IOException {
+    var table = NetworkTableInstance.getDefault().getTable(LIMELIGHT_NAME);
+
+    // Pose, latency, tag count, span, average distance and area, then 7 values per tag
+    botpose = new double[11 + 7 * tagCount];
+    double[] header = {3.615, 4.187, 0.0, 0.0, 0.0, 1.8, 25.7, tagCount, 0.33, 1.87, 0.49};
+    System.arraycopy(header, 0, botpose, 0, header.length);
+    for (int i = 0; i < tagCount; i++) {
+      double[] fiducial = {17 + i, -4.47, 4.59, 0.0061, 1.81, 1.56, 0.12};
+      System.arraycopy(fiducial, 0, botpose, 11 + 7 * i, fiducial.length);
+    }
+    table.getEntry("botpose_wpiblue").setDoubleArray(botpose);
+
+    try (InputStream json = getClass().getResourceAsStream("/limelight-results.json")) {
+      table.getEntry("json").setString(new String(json.readAllBytes(), StandardCharsets.UTF_8));
+    }
+  }
+
+  @Benchmark
+  public LimelightHelpers.PoseEstimate getBotPoseEstimate() {
+    return LimelightHelpers.getBotPoseEstimate_wpiBlue(LIMELIGHT_NAME);
+  }
+
+  /** Decoding a new frame into a reused estimate, without the NetworkTables read. */
+  @Benchmark
+  public LimelightHelpers.PoseEstimate parsePoseEstimate() {
+    LimelightHelpers.parsePoseEstimate(botpose, 0, false, reusedEstimate);
+    return reusedEstimate;
+  }
+
+  @Benchmark
+  public LimelightHelpers.LimelightResults getLatestResults() {
+    return LimelightHelpers.getLatestResults(LIMELIGHT_NAME);
+  }
+}
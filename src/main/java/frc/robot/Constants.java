@@ -40,6 +40,11 @@ public final class Constants {
     public static final String canivoreSerial = "D75CCE723353385320202034111303FF";
   }
 
+  public static class DriveConstants {
+    // Odometry frames held between main loop cycles before new ones are dropped, 80 ms at 250 Hz
+    public static final int ODOMETRY_FRAME_CAPACITY = 20;
+  }
+
   public static class IntakeConstants {
     public static final double rotatorGearRatio = 1;
     public static final double forwardSoftLimit = 0.25;
@@ -76,6 +81,29 @@ public final class Constants {
     public static final double EXTENDER_FORWARD_LIMIT = 4.55; // not in inches (rotations)
     public static final double EXTENDER_REVERSE_LIMIT = 0;
 
+    // Motion Magic limits, in mechanism rotations. Extension is just under the motor's free speed
+    // through its gearing.
+    public static final double ROTATOR_MAX_VELOCITY = 1.0;
+    public static final double ROTATOR_MAX_ACCELERATION = 4.0;
+    public static final double EXTENDER_MAX_VELOCITY = 1.2;
+    public static final double EXTENDER_MAX_ACCELERATION = 4.0;
+    public static final double EXTENDER_CURVE_JERK = 40.0; // Eases extension in and out
+
+    // Slot 0 feedforward in volts per mechanism rotation (per second, per second squared), so
+    // Motion Magic drives the profile and kP only corrects. These are estimates from the Kraken's
+    // free speed and stall torque through the gearing and the sim's arm mass, until SysId runs.
+    // Gravity on the extender is a few hundredths of a volt, so it has no kG.
+    public static final double ROTATOR_KS = 0.15;
+    public static final double ROTATOR_KV = 3.0; // 12 V / (100 rps free speed / 25)
+    public static final double ROTATOR_KA = 0.08;
+    public static final double ROTATOR_KG = 0.3; // Arm cosine, zero is horizontal
+    public static final double EXTENDER_KS = 0.15;
+    public static final double EXTENDER_KV = 7.65; // 12 V / (100 rps free speed / 63.75)
+
+    // Below this angle the hook swings over the intake, so it has to be retracted
+    public static final double MIN_EXTENDED_ANGLE = 88;
+    public static final double MAX_STOWED_EXTENSION = 0.2;
+
     // Rotation in degrees
 
     public static final double STAB_ANGLE = 35;
@@ -16,24 +16,23 @@ package frc.robot;
 import com.ctre.phoenix6.swerve.SwerveModuleConstants;
 import com.ctre.phoenix6.swerve.SwerveModuleConstants.DriveMotorArrangement;
 import com.ctre.phoenix6.swerve.SwerveModuleConstants.SteerMotorArrangement;
-import edu.wpi.first.math.Matrix;
-import edu.wpi.first.math.Nat;
-import edu.wpi.first.math.numbers.N1;
-import edu.wpi.first.math.numbers.N3;
 import edu.wpi.first.net.WebServer;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.DriverStation.Alliance;
 import edu.wpi.first.wpilibj.Filesystem;
 import edu.wpi.first.wpilibj.Threads;
-import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.smartdashboard.Field2d;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.commands.autoCommands.OnTheFlyCommands;
 import frc.robot.generated.TunerConstants;
+import frc.robot.util.LoopProfiler;
+import frc.robot.util.StatusSignalRegistry;
 import frc.robot.util.elastic.Elastic;
 import frc.robot.util.limelight.LimelightHelpers;
 import frc.robot.util.limelight.LimelightPipeline;
+import frc.robot.util.limelight.LimelightProber;
 import frc.robot.util.limelight.Limelights;
 import org.littletonrobotics.junction.LogFileUtil;
 import org.littletonrobotics.junction.LoggedRobot;
@@ -51,9 +50,15 @@ import org.littletonrobotics.junction.wpilog.WPILOGWriter;
 public class Robot extends LoggedRobot {
   private Command autonomousCommand;
   public static RobotContainer robotContainer;
-  private final Matrix<N3, N1> visionMatrix = new Matrix<>(Nat.N3(), Nat.N1());
   private Field2d field = new Field2d();
-  private final Timer timer = new Timer();
+
+  private final LoopProfiler.Section robotPeriodicTiming = LoopProfiler.section("RobotPeriodic");
+  private final LoopProfiler.Section signalRefreshTiming = LoopProfiler.section("SignalRefresh");
+  private final LoopProfiler.Section schedulerTiming = LoopProfiler.section("Scheduler");
+  private final LoopProfiler.Section dashboardTiming = LoopProfiler.section("Dashboard");
+  private final LoopProfiler.Section disabledPeriodicTiming =
+      LoopProfiler.section("DisabledPeriodic");
+  private final LoopProfiler.Section teleopPeriodicTiming = LoopProfiler.section("TeleopPeriodic");
 
   public Robot() {
     // Record metadata
@@ -120,11 +125,8 @@ public class Robot extends LoggedRobot {
     robotContainer = new RobotContainer();
     robotContainer.intake.addInstruments();
     robotContainer.boathook.addInstruments();
+    LoopProfiler.recordCommands(CommandScheduler.getInstance());
     SmartDashboard.putData("Field", field);
-    // From
-    // https://docs.limelightvision.io/docs/docs-limelight/pipeline-apriltag/apriltag-robot-localization
-    visionMatrix.fill(0.5); // X/Y location to 0.5
-    visionMatrix.set(2, 0, 1); // Vision rotation is not to be trusted, apparently
   }
 
   @Override
@@ -133,67 +135,50 @@ public class Robot extends LoggedRobot {
 
     Limelights.LEFT.setPipeline(LimelightPipeline.APRIL_TAG);
     Limelights.RIGHT.setPipeline(LimelightPipeline.APRIL_TAG);
+    // RobotContainer switches the rear camera to the robot detector while teleop alignment paths
     Limelights.REAR.setPipeline(LimelightPipeline.APRIL_TAG);
+    LimelightProber.start();
+
+    OnTheFlyCommands.warmUpPathfinding(robotContainer.drive.getPathfinder().getPathCache());
   }
 
   /** This function is called periodically during all modes. */
   @Override
   public void robotPeriodic() {
+    robotPeriodicTiming.start();
+
     // Switch thread to high priority to improve loop timing
     Threads.setCurrentThreadPriority(true, 99);
 
+    // Refresh every main loop CAN signal at once, so subsystems and IO only read cached values
+    signalRefreshTiming.start();
+    StatusSignalRegistry.refreshAll();
+    signalRefreshTiming.stop();
+
     // Runs the Scheduler. This is responsible for polling buttons, adding
     // newly-scheduled commands, running already-scheduled commands, removing
     // finished or interrupted commands, and running subsystem periodic() methods.
     // This must be called from the robot's periodic block in order for anything in
     // the Command-based framework to work.
+    schedulerTiming.start();
     CommandScheduler.getInstance().run();
+    schedulerTiming.stop();
     SmartDashboard.putData(CommandScheduler.getInstance());
     // SmartDashboard.putNumber("Target X", RobotContainer.currentTargetPose.x);
     // SmartDashboard.putNumber("Target Y", RobotContainer.currentTargetPose.y);
 
     // Return to normal thread priority
     Threads.setCurrentThreadPriority(false, 10);
-    maybeAddVisionMeasurement(Limelights.LEFT.name);
-    maybeAddVisionMeasurement(Limelights.RIGHT.name);
+
+    dashboardTiming.start();
     field.setRobotPose(robotContainer.drive.getPose());
 
     SmartDashboard.putNumberArray(
         "Pose", LimelightHelpers.getTargetPose_RobotSpace(Limelights.LEFT.name));
-  }
-
-  protected void maybeAddVisionMeasurement(String limelightName) {
-    SmartDashboard.putNumber("Time Since Last ", timer.get());
-
-    LimelightHelpers.PoseEstimate botPoseEstimate =
-        LimelightHelpers.getBotPoseEstimate_wpiBlue(limelightName);
-
-    if (botPoseEstimate == null) {
-      return; // No limelight connection just yet
-      // TODO Maybe alert if this happens for too long
-    }
-
-    if (botPoseEstimate.tagCount == 0) {
-      return; // Don't add vision when we can't see a tag
-    }
-
-    // If we only have one tag and one fiducial, we might need to bail
-    if (botPoseEstimate.tagCount == 1 && botPoseEstimate.rawFiducials.length == 1) {
-      // Highly ambiguous for direction/location? Reject it.
-      if (botPoseEstimate.rawFiducials[0].ambiguity > .7) // TODO Tune this for our case
-      {
-        return;
-      }
-
-      // More than 3 meters away? Reject it.
-      if (botPoseEstimate.rawFiducials[0].distToCamera > 3) {
-        return;
-      }
-    }
+    dashboardTiming.stop();
 
-    timer.restart();
-    robotContainer.drive.addVisionMeasurement(
-        limelightName, botPoseEstimate.pose, botPoseEstimate.timestampSeconds, visionMatrix);
+    robotPeriodicTiming.stop();
+    LoopProfiler.periodic();
   }
 
   /** This function is called once when the robot is disabled. */
@@ -208,6 +193,7 @@ public class Robot extends LoggedRobot {
   /** This function is called periodically when disabled. */
   @Override
   public void disabledPeriodic() {
+    disabledPeriodicTiming.start();
     if (!DriverStation.getAlliance().isPresent())
       robotContainer.leds.solidInSectionCenter(0, 0, 255);
     else if (DriverStation.getAlliance().get() == Alliance.Red)
@@ -220,6 +206,7 @@ public class Robot extends LoggedRobot {
     if (LimelightHelpers.getTV("limelight-left"))
       robotContainer.leds.solidInSection(14, 21, 60, 255, 255);
     else robotContainer.leds.solidInSection(14, 21, 0, 0, 0);
+    disabledPeriodicTiming.stop();
   }
 
   /** This autonomous runs the autonomous command selected by your {@link RobotContainer} class. */
@@ -261,10 +248,12 @@ public class Robot extends LoggedRobot {
   /** This function is called periodically during operator control. */
   @Override
   public void teleopPeriodic() {
+    teleopPeriodicTiming.start();
     SmartDashboard.putNumber("Gyro", robotContainer.drive.getRotation().getDegrees());
     // SmartDashboard.putString(
     //     "Direction", String.valueOf(RobotContainer.currentTargetPose.direction));
     // SmartDashboard.putNumber("Angle", RobotContainer.currentTargetPose.angle);
+    teleopPeriodicTiming.stop();
   }
 
   /** This function is called once when test mode is enabled. */
@@ -19,6 +19,7 @@ import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.wpilibj.DSControlWord;
 import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
 import edu.wpi.first.wpilibj.GenericHID;
 import edu.wpi.first.wpilibj.XboxController;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
@@ -29,15 +30,20 @@ import edu.wpi.first.wpilibj2.command.button.CommandXboxController;
 import edu.wpi.first.wpilibj2.command.button.Trigger;
 import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine;
 import frc.robot.commands.DriveCommands;
+import frc.robot.commands.autoCommands.AlignToTargetCommand;
 import frc.robot.commands.autoCommands.AutoRoutineBuilder;
 import frc.robot.commands.autoCommands.BoathookCommands;
 import frc.robot.commands.autoCommands.IntakeCommands;
 import frc.robot.commands.autoCommands.OnTheFlyCommands;
+import frc.robot.commands.autoCommands.OnTheFlyTargetPose;
 import frc.robot.commands.elasticCommands.PreCheckTab;
 import frc.robot.generated.TunerConstants;
 import frc.robot.subsystems.Leds;
 import frc.robot.subsystems.RumbleSubsystem;
 import frc.robot.subsystems.boathook.Boathook;
+import frc.robot.subsystems.boathook.BoathookIO;
+import frc.robot.subsystems.boathook.BoathookIOSim;
+import frc.robot.subsystems.boathook.BoathookIOTalonFX;
 import frc.robot.subsystems.drive.Drive;
 import frc.robot.subsystems.drive.GyroIO;
 import frc.robot.subsystems.drive.GyroIOPigeon2;
@@ -45,7 +51,19 @@ import frc.robot.subsystems.drive.ModuleIO;
 import frc.robot.subsystems.drive.ModuleIOSim;
 import frc.robot.subsystems.drive.ModuleIOTalonFX;
 import frc.robot.subsystems.intake.Intake;
+import frc.robot.subsystems.intake.IntakeIO;
+import frc.robot.subsystems.intake.IntakeIOSim;
+import frc.robot.subsystems.intake.IntakeIOTalonFX;
+import frc.robot.subsystems.obstacles.ObstacleIO;
+import frc.robot.subsystems.obstacles.ObstacleIOLimelight;
+import frc.robot.subsystems.obstacles.ObstacleIONetworkTables;
+import frc.robot.subsystems.obstacles.ObstacleTracker;
+import frc.robot.subsystems.vision.Vision;
+import frc.robot.subsystems.vision.VisionIO;
+import frc.robot.subsystems.vision.VisionIOLimelight;
 import frc.robot.util.ButtonBoxController;
+import frc.robot.util.limelight.LimelightPipeline;
+import frc.robot.util.limelight.Limelights;
 import org.littletonrobotics.junction.networktables.LoggedDashboardChooser;
 
 /**
@@ -57,6 +75,8 @@ import org.littletonrobotics.junction.networktables.LoggedDashboardChooser;
 public class RobotContainer {
   // Subsystems
   public final Drive drive;
+  public final Vision vision;
+  public final ObstacleTracker obstacleTracker;
   public final Intake intake;
   public final Boathook boathook;
   public final RumbleSubsystem rumbleSubsystem;
@@ -85,7 +105,8 @@ public class RobotContainer {
   private final Command microExtensionAdjustInwards;
   private final Command microExtensionAdjustOutwards;
 
-  public static Command currentOnTheFlyCommand;
+  // One alignment command for the whole match, retargeted by the button box
+  public static AlignToTargetCommand currentOnTheFlyCommand;
 
   public BoathookCommands boathookCommands;
   public IntakeCommands intakeCommands;
@@ -129,16 +150,27 @@ public class RobotContainer {
 
   /** The container for the robot. Contains subsystems, IO devices, and commands. */
   public RobotContainer() {
+    VisionIO visionIO;
+    ObstacleIO[] obstacleSources;
+    BoathookIO boathookIO;
+    IntakeIO intakeIO;
     switch (Constants.currentMode) {
       case REAL:
         // Real robot, instantiate hardware IO implementations
         drive =
             new Drive(
                 new GyroIOPigeon2(),
-                new ModuleIOTalonFX(TunerConstants.FrontLeft),
-                new ModuleIOTalonFX(TunerConstants.FrontRight),
-                new ModuleIOTalonFX(TunerConstants.BackLeft),
-                new ModuleIOTalonFX(TunerConstants.BackRight));
+                new ModuleIOTalonFX(0, TunerConstants.FrontLeft),
+                new ModuleIOTalonFX(1, TunerConstants.FrontRight),
+                new ModuleIOTalonFX(2, TunerConstants.BackLeft),
+                new ModuleIOTalonFX(3, TunerConstants.BackRight));
+        visionIO = new VisionIOLimelight(Vision.CAMERAS);
+        obstacleSources =
+            new ObstacleIO[] {
+              new ObstacleIOLimelight(Limelights.REAR), new ObstacleIONetworkTables()
+            };
+        boathookIO = new BoathookIOTalonFX();
+        intakeIO = new IntakeIOTalonFX();
         break;
 
       case SIM:
@@ -150,6 +182,10 @@ public class RobotContainer {
                 new ModuleIOSim(TunerConstants.FrontRight),
                 new ModuleIOSim(TunerConstants.BackLeft),
                 new ModuleIOSim(TunerConstants.BackRight));
+        visionIO = new VisionIOLimelight(Vision.CAMERAS);
+        obstacleSources = new ObstacleIO[] {new ObstacleIO() {}, new ObstacleIONetworkTables()};
+        boathookIO = new BoathookIOSim();
+        intakeIO = new IntakeIOSim();
         break;
 
       default:
@@ -161,16 +197,29 @@ public class RobotContainer {
                 new ModuleIO() {},
                 new ModuleIO() {},
                 new ModuleIO() {});
+        visionIO = new VisionIO() {};
+        obstacleSources = new ObstacleIO[] {new ObstacleIO() {}, new ObstacleIO() {}};
+        boathookIO = new BoathookIO() {};
+        intakeIO = new IntakeIO() {};
         break;
     }
 
-    intake = new Intake();
-    boathook = new Boathook();
+    // Registered after the drive, so vision is applied on top of this cycle's odometry
+    vision =
+        new Vision(
+            visionIO,
+            drive::addVisionMeasurement,
+            drive::getPose,
+            drive::getYawVelocityRadPerSec);
+    obstacleTracker = new ObstacleTracker(drive::getPose, obstacleSources);
+
+    intake = new Intake(intakeIO);
+    boathook = new Boathook(boathookIO);
     rumbleSubsystem = new RumbleSubsystem(controller);
     leds = new Leds();
 
     intakeCommands = new IntakeCommands(intake);
-    boathookCommands = new BoathookCommands(boathook);
+    boathookCommands = new BoathookCommands(boathook, leds);
 
     extendBoathook = boathookCommands.extendL2();
     retractBoathook = boathookCommands.retractL2();
@@ -195,7 +244,7 @@ public class RobotContainer {
     SmartDashboard.putStringArray("Auto Routine List", autoRoutineBuilder.getCommandStrings());
 
     rumblePresets = new RumblePresets(rumbleSubsystem);
-    currentOnTheFlyCommand = OnTheFlyCommands.alignSixRight();
+    currentOnTheFlyCommand = new AlignToTargetCommand(drive, OnTheFlyTargetPose.SIX_RIGHT);
 
     // Set up auto routines
     autoChooser = new LoggedDashboardChooser<>("Auto Choices", AutoBuilder.buildAutoChooser());
@@ -242,10 +291,11 @@ public class RobotContainer {
     // Default command, normal field-relative drive
     drive.setDefaultCommand(
         DriveCommands.joystickDrive(
-            drive,
-            () -> -controller.getLeftY() * (controller.rightStick().getAsBoolean() ? 1 : 0.8),
-            () -> -controller.getLeftX() * (controller.rightStick().getAsBoolean() ? 1 : 0.8),
-            () -> -controller.getRightX() * 0.8));
+                drive,
+                () -> -controller.getLeftY() * (controller.rightStick().getAsBoolean() ? 1 : 0.8),
+                () -> -controller.getLeftX() * (controller.rightStick().getAsBoolean() ? 1 : 0.8),
+                () -> -controller.getRightX() * 0.8)
+            .withName("JoystickDrive"));
 
     // Lock to 0° when A button is held
     // TODO Lock this into rotating around the reef
@@ -330,12 +380,27 @@ public class RobotContainer {
 
     configureAutoBuilderBindings();
 
+    // Swap the alignment targets to our side of the field whenever the alliance changes
+    OnTheFlyTargetPose.updateAlliance();
+    new Trigger(() -> DriverStation.getAlliance().orElse(Alliance.Blue) == Alliance.Red)
+        .onChange(Commands.runOnce(OnTheFlyTargetPose::updateAlliance).ignoringDisable(true));
+
+    // The rear camera localizes, except while teleop alignment is pathfinding, when it looks for
+    // robots to path around instead
+    new Trigger(() -> DriverStation.isTeleopEnabled() && currentOnTheFlyCommand.isPathfinding())
+        .onTrue(
+            Commands.runOnce(() -> Limelights.REAR.setPipeline(LimelightPipeline.ROBOT_DETECTOR))
+                .ignoringDisable(true))
+        .onFalse(
+            Commands.runOnce(() -> Limelights.REAR.setPipeline(LimelightPipeline.APRIL_TAG))
+                .ignoringDisable(true));
+
     // TODO Consolidate operatorController 1 & 2 into One class
 
     buttonBoxController
         .twoLeftTrigger()
         .onTrue(
-            Commands.runOnce(() -> currentOnTheFlyCommand = OnTheFlyCommands.alignTwoLeft())
+            Commands.runOnce(() -> currentOnTheFlyCommand.setTarget(OnTheFlyTargetPose.TWO_LEFT))
                 .alongWith(
                     Commands.run(() -> leds.flash(15, 255, 255, 0.25))
                         .withTimeout(0.5)
@@ -343,7 +408,7 @@ public class RobotContainer {
     buttonBoxController
         .twoRightTrigger()
         .onTrue(
-            Commands.runOnce(() -> currentOnTheFlyCommand = OnTheFlyCommands.alignTwoRight())
+            Commands.runOnce(() -> currentOnTheFlyCommand.setTarget(OnTheFlyTargetPose.TWO_RIGHT))
                 .alongWith(
                     Commands.run(() -> leds.flash(0, 255, 255, 0.25))
                         .withTimeout(0.5)
@@ -352,7 +417,7 @@ public class RobotContainer {
     buttonBoxController
         .fourLeftTrigger()
         .onTrue(
-            Commands.runOnce(() -> currentOnTheFlyCommand = OnTheFlyCommands.alignFourLeft())
+            Commands.runOnce(() -> currentOnTheFlyCommand.setTarget(OnTheFlyTargetPose.FOUR_LEFT))
                 .alongWith(
                     Commands.run(() -> leds.flash(45, 255, 255, 0.25))
                         .withTimeout(0.5)
@@ -360,7 +425,7 @@ public class RobotContainer {
     buttonBoxController
         .fourRightTrigger()
         .onTrue(
-            Commands.runOnce(() -> currentOnTheFlyCommand = OnTheFlyCommands.alignFourRight())
+            Commands.runOnce(() -> currentOnTheFlyCommand.setTarget(OnTheFlyTargetPose.FOUR_RIGHT))
                 .alongWith(
                     Commands.run(() -> leds.flash(30, 255, 255, 0.25))
                         .withTimeout(0.5)
@@ -369,7 +434,7 @@ public class RobotContainer {
     buttonBoxController
         .sixLeftTrigger()
         .onTrue(
-            Commands.runOnce(() -> currentOnTheFlyCommand = OnTheFlyCommands.alignSixLeft())
+            Commands.runOnce(() -> currentOnTheFlyCommand.setTarget(OnTheFlyTargetPose.SIX_LEFT))
                 .alongWith(
                     Commands.run(() -> leds.flash(75, 255, 255, 0.25))
                         .withTimeout(0.5)
@@ -377,7 +442,7 @@ public class RobotContainer {
     buttonBoxController
         .sixRightTrigger()
         .onTrue(
-            Commands.runOnce(() -> currentOnTheFlyCommand = OnTheFlyCommands.alignSixRight())
+            Commands.runOnce(() -> currentOnTheFlyCommand.setTarget(OnTheFlyTargetPose.SIX_RIGHT))
                 .alongWith(
                     Commands.run(() -> leds.flash(60, 255, 255, 0.25))
                         .withTimeout(0.5)
@@ -386,7 +451,7 @@ public class RobotContainer {
     buttonBoxController
         .eightLeftTrigger()
         .onTrue(
-            Commands.runOnce(() -> currentOnTheFlyCommand = OnTheFlyCommands.alignEightLeft())
+            Commands.runOnce(() -> currentOnTheFlyCommand.setTarget(OnTheFlyTargetPose.EIGHT_LEFT))
                 .alongWith(
                     Commands.run(() -> leds.flash(105, 255, 255, 0.25))
                         .withTimeout(0.5)
@@ -394,7 +459,7 @@ public class RobotContainer {
     buttonBoxController
         .eightRightTrigger()
         .onTrue(
-            Commands.runOnce(() -> currentOnTheFlyCommand = OnTheFlyCommands.alignEightRight())
+            Commands.runOnce(() -> currentOnTheFlyCommand.setTarget(OnTheFlyTargetPose.EIGHT_RIGHT))
                 .alongWith(
                     Commands.run(() -> leds.flash(90, 255, 255, 0.25))
                         .withTimeout(0.5)
@@ -403,7 +468,7 @@ public class RobotContainer {
     buttonBoxController
         .tenLeftTrigger()
         .onTrue(
-            Commands.runOnce(() -> currentOnTheFlyCommand = OnTheFlyCommands.alignTenLeft())
+            Commands.runOnce(() -> currentOnTheFlyCommand.setTarget(OnTheFlyTargetPose.TEN_LEFT))
                 .alongWith(
                     Commands.run(() -> leds.flash(135, 255, 255, 0.25))
                         .withTimeout(0.5)
@@ -411,7 +476,7 @@ public class RobotContainer {
     buttonBoxController
         .tenRightTrigger()
         .onTrue(
-            Commands.runOnce(() -> currentOnTheFlyCommand = OnTheFlyCommands.alignTenRight())
+            Commands.runOnce(() -> currentOnTheFlyCommand.setTarget(OnTheFlyTargetPose.TEN_RIGHT))
                 .alongWith(
                     Commands.run(() -> leds.flash(120, 255, 255, 0.25))
                         .withTimeout(0.5)
@@ -420,7 +485,7 @@ public class RobotContainer {
     buttonBoxController
         .twelveLeftTrigger()
         .onTrue(
-            Commands.runOnce(() -> currentOnTheFlyCommand = OnTheFlyCommands.alignTwelveLeft())
+            Commands.runOnce(() -> currentOnTheFlyCommand.setTarget(OnTheFlyTargetPose.TWELVE_LEFT))
                 .alongWith(
                     Commands.run(() -> leds.flash(165, 255, 255, 0.25))
                         .withTimeout(0.5)
@@ -428,7 +493,8 @@ public class RobotContainer {
     buttonBoxController
         .twelveRightTrigger()
         .onTrue(
-            Commands.runOnce(() -> currentOnTheFlyCommand = OnTheFlyCommands.alignTwelveRight())
+            Commands.runOnce(
+                    () -> currentOnTheFlyCommand.setTarget(OnTheFlyTargetPose.TWELVE_RIGHT))
                 .alongWith(
                     Commands.run(() -> leds.flash(150, 255, 255, 0.25))
                         .withTimeout(0.5)
@@ -741,6 +807,6 @@ public class RobotContainer {
    * @return the command to run in autonomous
    */
   public Command getAutonomousCommand() {
-    return autoRoutineBuilder.build();
+    return autoRoutineBuilder.build().withName("Autonomous");
   }
 }
@@ -0,0 +1,217 @@
+package frc.robot.commands.autoCommands;
+
+import com.pathplanner.lib.controllers.PPHolonomicDriveController;
+import com.pathplanner.lib.path.GoalEndState;
+import com.pathplanner.lib.path.PathConstraints;
+import com.pathplanner.lib.path.PathPlannerPath;
+import com.pathplanner.lib.path.PathPoint;
+import com.pathplanner.lib.pathfinding.Pathfinding;
+import com.pathplanner.lib.trajectory.PathPlannerTrajectory;
+import com.pathplanner.lib.trajectory.PathPlannerTrajectoryState;
+import com.pathplanner.lib.util.PathPlannerLogging;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.Command;
+import frc.robot.subsystems.drive.Drive;
+import frc.robot.util.FinalApproachController;
+import java.util.List;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Pathfinds to an {@link OnTheFlyTargetPose} and settles on it with a {@link
+ * FinalApproachController}. The target can be changed at any time with {@link #setTarget}, so one
+ * command is kept for the whole match: while it runs, a new target is handed to the AD* planner,
+ * which replans from where the robot will be when the path arrives. Until then the robot keeps
+ * following the old path, or keeps its velocity and eases off it at the path acceleration limit, so
+ * a retarget never brakes it. Nothing is rescheduled.
+ *
+ * <p>The final approach drives straight at the goal, so it only starts at the end of a path planned
+ * to the current goal, or when the goal is already within {@link #FINAL_APPROACH_DISTANCE_METERS}.
+ */
+public class AlignToTargetCommand extends Command {
+  private static final PathConstraints CONSTRAINTS =
+      new PathConstraints(4.0, 4.0, Units.degreesToRadians(540), Units.degreesToRadians(720));
+
+  // A goal this close is reached with the final approach alone
+  private static final double FINAL_APPROACH_DISTANCE_METERS = 0.5;
+
+  // How close a new path has to end to the goal to be a plan to it, rather than to the last goal
+  private static final double PATH_GOAL_TOLERANCE_METERS = 0.05;
+
+  // About how long the planner takes to answer, so the new path starts where the robot will be
+  private static final double REPLAN_LOOKAHEAD_SECS = 0.1;
+
+  private final Drive drive;
+  private final PPHolonomicDriveController pathController =
+      new PPHolonomicDriveController(Drive.PP_TRANSLATION_PID, Drive.PP_ROTATION_PID);
+  private final FinalApproachController finalApproach = new FinalApproachController();
+  private final Timer trajectoryTimer = new Timer();
+  private final Timer replanTimer = new Timer();
+
+  private OnTheFlyTargetPose target;
+  private Pose2d goal;
+  private PathPlannerTrajectory trajectory = null;
+  private boolean inFinalApproach = false;
+
+  // Whether a path to the current goal is still being planned, and the velocity held until then
+  private boolean replanning = false;
+  private ChassisSpeeds heldVelocity = new ChassisSpeeds();
+
+  // Field-relative velocity last commanded by path following, which the final approach starts at
+  private ChassisSpeeds handoffVelocity = new ChassisSpeeds();
+
+  public AlignToTargetCommand(Drive drive, OnTheFlyTargetPose target) {
+    this.drive = drive;
+    this.target = target;
+    setName("Align_To_Target");
+    addRequirements(drive);
+  }
+
+  /** Sets the target to align to, replanning right away if the command is running. */
+  public void setTarget(OnTheFlyTargetPose target) {
+    this.target = target;
+    if (isScheduled()) {
+      retarget(drive.getPose(), getFieldVelocity());
+    }
+  }
+
+  /** Returns the target being aligned to. */
+  public OnTheFlyTargetPose getTarget() {
+    return target;
+  }
+
+  /** Returns whether the command is following a path, before it hands off to the final approach. */
+  public boolean isPathfinding() {
+    return isScheduled() && !inFinalApproach;
+  }
+
+  @Override
+  public void initialize() {
+    trajectory = null;
+    inFinalApproach = false;
+    replanning = false;
+    // Nothing has been commanded yet, so a goal that needs no path starts from the measured speed
+    handoffVelocity = getFieldVelocity();
+    retarget(drive.getPose(), handoffVelocity);
+  }
+
+  @Override
+  public void execute() {
+    Pose2d pose = drive.getPose();
+    ChassisSpeeds fieldVelocity = getFieldVelocity();
+
+    if (!inFinalApproach) {
+      if (Pathfinding.isNewPathAvailable()) {
+        PathPlannerPath path =
+            Pathfinding.getCurrentPath(CONSTRAINTS, new GoalEndState(0.0, goal.getRotation()));
+        if (path != null && endsAtGoal(path)) {
+          ChassisSpeeds robotVelocity = drive.getChassisSpeeds();
+          trajectory = path.generateTrajectory(robotVelocity, pose.getRotation(), Drive.PP_CONFIG);
+          pathController.reset(pose, robotVelocity);
+          trajectoryTimer.restart();
+          replanning = false;
+          PathPlannerLogging.logActivePath(path);
+        }
+      }
+
+      if (trajectory != null && trajectoryTimer.get() < trajectory.getTotalTimeSeconds()) {
+        PathPlannerTrajectoryState state = trajectory.sample(trajectoryTimer.get());
+        PathPlannerLogging.logTargetPose(state.pose);
+        drive.runVelocity(pathController.calculateRobotRelativeSpeeds(pose, state));
+        handoffVelocity = state.fieldSpeeds;
+        if (replanning) {
+          // Still on the old path, so hold whatever it leaves off at
+          heldVelocity = fieldVelocity;
+          replanTimer.restart();
+        }
+        return;
+      }
+      if (replanning) {
+        holdVelocity(); // Waiting on a path to the goal
+        return;
+      }
+
+      // The path is done, or the goal was close enough to skip it
+      if (trajectory != null) {
+        handoffVelocity = trajectory.getEndState().fieldSpeeds;
+      }
+      finalApproach.reset(pose, handoffVelocity, goal);
+      inFinalApproach = true;
+    }
+
+    drive.runVelocity(
+        ChassisSpeeds.fromFieldRelativeSpeeds(
+            finalApproach.calculate(pose, fieldVelocity), drive.getRotation()));
+  }
+
+  @Override
+  public boolean isFinished() {
+    return inFinalApproach && finalApproach.isSettled();
+  }
+
+  @Override
+  public void end(boolean interrupted) {
+    drive.stop();
+    trajectory = null;
+    inFinalApproach = false;
+    replanning = false;
+  }
+
+  private void retarget(Pose2d pose, ChassisSpeeds fieldVelocity) {
+    goal = target.getPose();
+    Logger.recordOutput("Align/Target", target.name());
+    Logger.recordOutput("Align/Goal", goal);
+
+    // Close targets are a small correction, so steer the running approach instead of pathfinding
+    if (pose.getTranslation().getDistance(goal.getTranslation())
+        <= FINAL_APPROACH_DISTANCE_METERS) {
+      if (inFinalApproach) {
+        finalApproach.setGoal(goal);
+      }
+      trajectory = null;
+      replanning = false;
+      return;
+    }
+
+    // The old path ends at the old goal, so it is only followed until the planner has one to the
+    // new goal. That one is seeded with where the robot is headed and its current velocity.
+    inFinalApproach = false;
+    replanning = true;
+    heldVelocity = fieldVelocity;
+    replanTimer.restart();
+    Pathfinding.setStartPosition(
+        pose.getTranslation()
+            .plus(
+                new Translation2d(
+                    fieldVelocity.vxMetersPerSecond * REPLAN_LOOKAHEAD_SECS,
+                    fieldVelocity.vyMetersPerSecond * REPLAN_LOOKAHEAD_SECS)));
+    Pathfinding.setGoalPosition(goal.getTranslation());
+  }
+
+  /**
+   * Keeps the velocity the robot had when it was retargeted or left the old path, slowing at the
+   * path acceleration limit so it stops if the planner never answers.
+   */
+  private void holdVelocity() {
+    double speed = Math.hypot(heldVelocity.vxMetersPerSecond, heldVelocity.vyMetersPerSecond);
+    double scale =
+        speed > 1e-6 ? 1.0 - CONSTRAINTS.maxAccelerationMPSSq() * replanTimer.get() / speed : 0.0;
+    drive.runVelocity(
+        ChassisSpeeds.fromFieldRelativeSpeeds(
+            heldVelocity.times(Math.max(scale, 0.0)), drive.getRotation()));
+  }
+
+  private boolean endsAtGoal(PathPlannerPath path) {
+    List<PathPoint> points = path.getAllPathPoints();
+    return !points.isEmpty()
+        && points.get(points.size() - 1).position.getDistance(goal.getTranslation())
+            <= PATH_GOAL_TOLERANCE_METERS;
+  }
+
+  private ChassisSpeeds getFieldVelocity() {
+    return ChassisSpeeds.fromRobotRelativeSpeeds(drive.getChassisSpeeds(), drive.getRotation());
+  }
+}
@@ -1,44 +1,33 @@
 package frc.robot.commands.autoCommands;
 
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.ParallelCommandGroup;
 import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
 import edu.wpi.first.wpilibj2.command.WaitCommand;
-import frc.robot.Robot;
+import edu.wpi.first.wpilibj2.command.button.Trigger;
+import frc.robot.Constants.BoathookConstants;
 import frc.robot.subsystems.Leds;
 import frc.robot.subsystems.boathook.Boathook;
-import java.util.function.BooleanSupplier;
+import frc.robot.subsystems.boathook.BoathookTrajectory;
+import frc.robot.subsystems.boathook.BoathookTrajectory.State;
 
 public class BoathookCommands {
 
-  private double startLength;
-  private double itterations = 0;
-  private int clockCycles = 80;
-  private double gain = 15;
-  private double offset = -0.1;
-  private double scaling = 0.1;
   private Boathook boathook;
+  private Leds leds;
 
-  public BoathookCommands(Boathook boathook) {
+  public BoathookCommands(Boathook boathook, Leds leds) {
     this.boathook = boathook;
+    this.leds = leds;
   }
 
   public Command extendL2() {
-    return new SequentialCommandGroup(
-        setLengthLinearCommand(0.2),
-        setAngleCommand(90),
-        setLengthLinearCommand(1.1),
-        setAngleCommand(120));
+    return moveCommand(new State(120, 1.1));
   }
 
   public Command retractL2() {
-    return new SequentialCommandGroup(
-        setLengthLinearCommand(0.93),
-        setAngleCommand(144),
-        setLengthLinearCommand(0.2),
-        setAngleCommand(93));
+    return moveCommand(new State(120, 0.93), new State(144, 0.93), new State(93, 0.2));
   }
 
   public Command scoreL2() {
@@ -47,19 +36,11 @@ public class BoathookCommands {
   }
 
   public Command extendL3() {
-    return new SequentialCommandGroup(
-        setLengthLinearCommand(0.2),
-        setAngleCommand(90),
-        setLengthLinearCommand(2.4),
-        setAngleCommand(108));
+    return moveCommand(new State(108, 2.4));
   }
 
   public Command retractL3() {
-    return new SequentialCommandGroup(
-        setLengthLinearCommand(2.2),
-        setAngleCommand(125),
-        setLengthLinearCommand(0.2),
-        setAngleCommand(93));
+    return moveCommand(new State(108, 2.2), new State(125, 2.2), new State(93, 0.2));
   }
 
   public Command scoreL3() {
@@ -68,16 +49,11 @@ public class BoathookCommands {
   }
 
   public Command extendL4() {
-    return new SequentialCommandGroup(
-        setLengthLinearCommand(0.2),
-        setAngleCommand(92),
-        setLengthCurveCommand(4.6),
-        setAngleCommand(97));
+    return moveCommand(new State(97, 4.6));
   }
 
   public Command retractL4() {
-    return new SequentialCommandGroup(
-        setLengthLinearCommand(2.45), setAngleCommand(93), setLengthLinearCommand(0.2));
+    return moveCommand(new State(97, 2.45), new State(93, 2.45), new State(93, 0.2));
   }
 
   public Command scoreL4() {
@@ -86,27 +62,27 @@ public class BoathookCommands {
   }
 
   public Command setBoathookIdle() {
-    return new SequentialCommandGroup(setAngleCommand(93), setLengthLinearCommand(0.2));
+    return moveCommand(new State(93, 0.2));
   }
 
   public Command setBoathookStab() {
-    return new SequentialCommandGroup(setLengthLinearCommand(0.2), setAngleCommand(45));
+    return moveCommand(new State(45, 0.2));
   }
 
   public Command MicroAdjustExtensionForward() {
-    return Commands.runOnce(() -> boathook.setLength(boathook.getLengthSetpoint() + 0.05));
+    return Commands.runOnce(() -> boathook.setLength(boathook.getLengthGoal() + 0.05));
   }
 
   public Command MicroAdjustExtensionBackward() {
-    return Commands.runOnce(() -> boathook.setLength(boathook.getLengthSetpoint() - 0.05));
+    return Commands.runOnce(() -> boathook.setLength(boathook.getLengthGoal() - 0.05));
   }
 
   public Command MicroAdjustAngleForward() {
-    return Commands.runOnce(() -> boathook.setAngle(boathook.getAngleSetpoint() + 0.05));
+    return Commands.runOnce(() -> boathook.setAngle(boathook.getAngleGoal() + 0.05));
   }
 
   public Command MicroAdjustAngleBackward() {
-    return Commands.runOnce(() -> boathook.setAngle(boathook.getAngleSetpoint() - 0.05));
+    return Commands.runOnce(() -> boathook.setAngle(boathook.getAngleGoal() - 0.05));
   }
 
   // exists because setName returns void,
@@ -117,82 +93,62 @@ public class BoathookCommands {
 
   public Command handoffCommand(IntakeCommands intakeCommands, Leds led) {
     return new SequentialCommandGroup(
-        setAngleCommand(93),
-        setLengthLinearCommand(0.06),
-        setAngleCommand(25),
+        moveCommand(new State(25, 0.06)),
         intakeCommands.intakeSpearCommand(),
         new ParallelCommandGroup(setAngleCommand(93), intakeCommands.runRejectCommand()),
         intakeCommands.intakeL1Command(),
         Commands.runOnce(() -> led.solidInSection(0, 21, 60, 255, 255)));
   }
 
+  /**
+   * Moves both axes at once through each goal, going around the intake when needed. See {@link
+   * BoathookTrajectory}.
+   */
+  public Command moveCommand(State... goals) {
+    return new MoveBoathookCommand(boathook, leds, goals);
+  }
+
+  /** Sends one profiled move to the rotation motor and waits for it to arrive. */
   public Command setAngleCommand(double angle) {
-    return (Commands.run(
+    return Commands.runOnce(
             () -> {
               boathook.setAngle(angle);
-              Robot.robotContainer.leds.solidInSectionRight(30, 255, 255);
-            }))
-        .until(isAngleFinished())
-        .andThen(
-            Commands.runOnce(() -> Robot.robotContainer.leds.solidInSectionRight(60, 255, 255)));
+              leds.solidInSectionRight(30, 255, 255);
+            })
+        .andThen(Commands.waitUntil(isAngleFinished()))
+        .andThen(Commands.runOnce(() -> leds.solidInSectionRight(60, 255, 255)));
   }
 
+  /** Sends one profiled move to the extender motor and waits for it to arrive. */
   public Command setLengthLinearCommand(double length) {
-    return Commands.run(
-            () -> {
-              boathook.setLength(length);
-              Robot.robotContainer.leds.solidInSectionLeft(30, 255, 255);
-            })
-        .until(isLinearExtendFinished())
-        .andThen(
-            Commands.runOnce(() -> Robot.robotContainer.leds.solidInSectionLeft(60, 255, 255)));
+    return setLengthCommand(length, 0.0);
   }
 
+  /** Like {@link #setLengthLinearCommand}, with a jerk limit so the move eases in and out. */
   public Command setLengthCurveCommand(double length) {
+    return setLengthCommand(length, BoathookConstants.EXTENDER_CURVE_JERK);
+  }
+
+  private Command setLengthCommand(double length, double maxJerk) {
     return Commands.runOnce(
             () -> {
-              startLength = boathook.getLength();
-              itterations = 0;
-              System.out.println(startLength + ", " + length);
+              boathook.setLength(
+                  length,
+                  BoathookConstants.EXTENDER_MAX_VELOCITY,
+                  BoathookConstants.EXTENDER_MAX_ACCELERATION,
+                  maxJerk);
+              leds.solidInSectionLeft(30, 255, 255);
             })
-        .andThen(
-            Commands.run(
-                    () -> {
-                      double setPoint =
-                          startLength
-                              + ((length - startLength)
-                                  / (1
-                                      + Math.exp(
-                                          -gain
-                                              * (itterations / 100
-                                                  - offset
-                                                  - scaling * (length - startLength)))));
-                      System.out.println(itterations + " Stepoint: " + setPoint);
-                      SmartDashboard.putNumber("Boathook Setpoint", setPoint);
-                      itterations++;
-                      boathook.setLength(setPoint);
-                      Robot.robotContainer.leds.solidInSectionLeft(30, 255, 255);
-                    })
-                .until(isCurveExtendFinished()))
-        .andThen(
-            Commands.runOnce(
-                () -> {
-                  Robot.robotContainer.leds.solidInSectionLeft(60, 255, 255);
-                  boathook.setLength(length);
-                }));
-  }
-
-  public BooleanSupplier isLinearExtendFinished() {
-    return () -> (Math.abs(boathook.getLengthSetpoint() - boathook.getLength()) < 0.1);
-  }
-
-  public BooleanSupplier isCurveExtendFinished() {
-    return () ->
-        (Math.abs(boathook.getLengthSetpoint() - boathook.getLength()) < 0.1
-            && itterations > clockCycles);
-  }
-
-  public BooleanSupplier isAngleFinished() {
-    return () -> (Math.abs(boathook.getAngleSetpoint() - boathook.getAngle()) < 5);
+        .andThen(Commands.waitUntil(isLinearExtendFinished()))
+        .andThen(Commands.runOnce(() -> leds.solidInSectionLeft(60, 255, 255)));
+  }
+
+  // Both are settled once per loop in Boathook.periodic, so waiting on them doesn't read the motors
+  public Trigger isLinearExtendFinished() {
+    return boathook.lengthAtGoal();
+  }
+
+  public Trigger isAngleFinished() {
+    return boathook.angleAtGoal();
   }
 }
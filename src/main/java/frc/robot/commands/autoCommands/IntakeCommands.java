@@ -27,20 +27,19 @@ public class IntakeCommands {
   }
 
   public Command intakeDownCommand() {
-    return Commands.run(() -> intake.setAngle(0.015))
-        .until(() -> Math.abs(0 - intake.getRotationAngle()) < 0.01);
+    // The window is around the 0.015 goal. It used to be within 0.01 of 0, which the pivot only
+    // reached by sagging past its goal, so the wait could hang while it held 0.015.
+    return Commands.runOnce(() -> intake.setAngle(0.015, 0.01))
+        .andThen(Commands.waitUntil(intake.pivotAtGoal()));
   }
 
   public Command intakeL1Command() {
-    return Commands.run(() -> intake.setAngle(0.2))
-        .until(() -> Math.abs(0.2 - intake.getRotationAngle()) < 0.01);
+    return Commands.runOnce(() -> intake.setAngle(0.2, 0.01))
+        .andThen(Commands.waitUntil(intake.pivotAtGoal()));
   }
 
   public Command intakeSpearCommand() {
-    return Commands.run(() -> intake.setAngle(0.45))
-        .until(
-            () ->
-                Math.abs(0.45 - intake.getRotationAngle()) < 0.025
-                    && Math.abs(intake.getRotationVelocity()) < 0.01);
+    return Commands.runOnce(() -> intake.setAngle(0.45, 0.025, 0.01))
+        .andThen(Commands.waitUntil(intake.pivotAtGoal()));
   }
 }
@@ -0,0 +1,91 @@
+package frc.robot.commands.autoCommands;
+
+import edu.wpi.first.wpilibj2.command.Command;
+import frc.robot.subsystems.Leds;
+import frc.robot.subsystems.boathook.Boathook;
+import frc.robot.subsystems.boathook.BoathookTrajectory;
+import frc.robot.subsystems.boathook.BoathookTrajectory.Leg;
+import frc.robot.subsystems.boathook.BoathookTrajectory.State;
+import java.util.List;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Moves both boathook axes together along a {@link BoathookTrajectory}, planned from wherever the
+ * boathook is when the command starts. Each leg is sent once to the motor controllers as a pair of
+ * onboard profiles, scaled so both axes finish together, and the next leg starts when both report
+ * that they have arrived. Finishes when the last leg has. Requires the boathook, so a second move
+ * interrupts this one instead of sending both motors its own legs around the intake.
+ */
+public class MoveBoathookCommand extends Command {
+  // An axis that barely moves on a leg still gets usable limits to hold its position with
+  private static final double MIN_ANGULAR_VELOCITY = 1.0;
+  private static final double MIN_LENGTH_VELOCITY = 0.01;
+
+  private final Boathook boathook;
+  private final Leds leds;
+  private final State[] goals;
+  private List<Leg> legs;
+  private int legIndex;
+
+  /**
+   * @param boathook Boathook to move
+   * @param leds LEDs that show when the move is running
+   * @param goals Positions to move through, stopping at each one
+   */
+  public MoveBoathookCommand(Boathook boathook, Leds leds, State... goals) {
+    this.boathook = boathook;
+    this.leds = leds;
+    this.goals = goals;
+    addRequirements(boathook);
+  }
+
+  @Override
+  public void initialize() {
+    BoathookTrajectory trajectory =
+        BoathookTrajectory.plan(new State(boathook.getAngle(), boathook.getLength()), goals);
+    legs = trajectory.getLegs();
+    legIndex = 0;
+    Logger.recordOutput("Boathook/MoveTimeSecs", trajectory.getTotalTimeSeconds());
+    leds.solidInSectionLeft(30, 255, 255);
+    leds.solidInSectionRight(30, 255, 255);
+    if (!legs.isEmpty()) {
+      startLeg(legs.get(0));
+    }
+  }
+
+  @Override
+  public void execute() {
+    if (legIndex < legs.size() - 1 && isAtGoal()) {
+      legIndex++;
+      startLeg(legs.get(legIndex));
+    }
+  }
+
+  @Override
+  public boolean isFinished() {
+    return legIndex >= legs.size() - 1 && isAtGoal();
+  }
+
+  @Override
+  public void end(boolean interrupted) {
+    leds.solidInSectionLeft(60, 255, 255);
+    leds.solidInSectionRight(60, 255, 255);
+  }
+
+  private boolean isAtGoal() {
+    return legs.isEmpty() || (boathook.isAngleAtGoal() && boathook.isLengthAtGoal());
+  }
+
+  private void startLeg(Leg leg) {
+    if (leg.angularVelocity() < MIN_ANGULAR_VELOCITY) {
+      boathook.setAngle(leg.end().angle());
+    } else {
+      boathook.setAngle(leg.end().angle(), leg.angularVelocity(), leg.angularAcceleration());
+    }
+    if (leg.lengthVelocity() < MIN_LENGTH_VELOCITY) {
+      boathook.setLength(leg.end().length());
+    } else {
+      boathook.setLength(leg.end().length(), leg.lengthVelocity(), leg.lengthAcceleration(), 0.0);
+    }
+  }
+}
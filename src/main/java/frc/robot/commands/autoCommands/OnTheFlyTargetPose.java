@@ -0,0 +1,98 @@
+package frc.robot.commands.autoCommands;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+
+/**
+ * Field locations the robot aligns to on the fly. Both alliances' poses are built once, with the
+ * red ones rotated about the center of the field, and {@link #getPose()} reads the current
+ * alliance's pose from a table that is only swapped when the alliance changes.
+ */
+public enum OnTheFlyTargetPose {
+  // all defined as x/y locations on the field
+  // the relative (0, 0) is the right corner of the blue driver station
+  TWO_LEFT(5.05, 2.72, 120),
+  FOUR_LEFT(3.64, 2.89, 60),
+  SIX_LEFT(3.08, 4.20, 0),
+  EIGHT_LEFT(3.93, 5.33, -60),
+  TEN_LEFT(5.06, 5.32, -120),
+  TWELVE_LEFT(5.9, 3.86, 180),
+  TWO_RIGHT(5.33, 2.88, 120),
+  FOUR_RIGHT(3.92, 2.73, 60),
+  SIX_RIGHT(3.08, 3.87, 0),
+  EIGHT_RIGHT(3.65, 5.17, -60),
+  TEN_RIGHT(5.34, 5.16, -120),
+  TWELVE_RIGHT(5.9, 4.18, 180),
+  // Human Player Locations
+  HUMAN_LEFT(1.3, 1.0, -130),
+  HUMAN_RIGHT(1.3, 6.6, 130),
+  // Climb positions
+  BLUE_CLIMB_ONE(8.8, 7.25, 180),
+  BLUE_CLIMB_TWO(8.8, 6.18, 180),
+  BLUE_CLIMB_THREE(8.8, 5.1, 180),
+  RED_CLIMB_ONE(8.8, 0.8, 180),
+  RED_CLIMB_TWO(8.8, 1.9, 180),
+  RED_CLIMB_THREE(8.8, 2.95, 180),
+  // "Lolipop" or coral with algea on top of it positions
+  LOLLIPOP_RIGHT_SETUP(2.5, 5.8, 0),
+  LOLLIPOP_CENTER_SETUP(2.5, 4.0, 0),
+  LOLLIPOP_LEFT_SETUP(2.5, 2.2, 0),
+  LOLLIPOP_RIGHT(1.227, 5.8, 0),
+  LOLLIPOP_CENTER(1.227, 4.0, 0),
+  LOLLIPOP_LEFT(1.227, 2.2, 0);
+
+  // approximate location of top right corner of the reef = 17.6, 7.6
+  private static final double FIELD_LENGTH_METERS = 17.548;
+  private static final double FIELD_WIDTH_METERS = 8.052;
+
+  private static final Pose2d[] BLUE_POSES;
+  private static final Pose2d[] RED_POSES;
+
+  static {
+    OnTheFlyTargetPose[] targets = values();
+    BLUE_POSES = new Pose2d[targets.length];
+    RED_POSES = new Pose2d[targets.length];
+    for (OnTheFlyTargetPose target : targets) {
+      BLUE_POSES[target.ordinal()] = target.bluePose;
+      RED_POSES[target.ordinal()] = target.redPose;
+    }
+  }
+
+  private static Pose2d[] alliancePoses = BLUE_POSES;
+  private static boolean isRedAlliance = false;
+
+  // Rotation2d keeps its sine and cosine, so these never need trig after construction
+  public final Pose2d bluePose;
+  public final Pose2d redPose;
+
+  OnTheFlyTargetPose(double x, double y, double angle) {
+    bluePose = new Pose2d(x, y, Rotation2d.fromDegrees(angle));
+    redPose =
+        new Pose2d(
+            FIELD_LENGTH_METERS - x,
+            FIELD_WIDTH_METERS - y,
+            Rotation2d.fromDegrees(MathUtil.inputModulus(angle + 180, -180, 180)));
+  }
+
+  /** Returns the pose of this target for the current alliance. */
+  public Pose2d getPose() {
+    return alliancePoses[ordinal()];
+  }
+
+  /** Returns whether the targets are currently flipped for the red alliance. */
+  public static boolean isRedAlliance() {
+    return isRedAlliance;
+  }
+
+  /**
+   * Points the table at the current alliance's poses, blue if it is not known yet. Call when the
+   * alliance changes.
+   */
+  public static void updateAlliance() {
+    isRedAlliance = DriverStation.getAlliance().orElse(Alliance.Blue) == Alliance.Red;
+    alliancePoses = isRedAlliance ? RED_POSES : BLUE_POSES;
+  }
+}
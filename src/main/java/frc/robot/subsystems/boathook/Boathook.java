@@ -4,20 +4,14 @@
 
 package frc.robot.subsystems.boathook;
 
-import com.ctre.phoenix6.StatusSignal;
-import com.ctre.phoenix6.configs.*;
-import com.ctre.phoenix6.controls.PositionVoltage;
-import com.ctre.phoenix6.controls.StaticBrake;
-import com.ctre.phoenix6.hardware.CANcoder;
-import com.ctre.phoenix6.hardware.CANdi;
-import com.ctre.phoenix6.hardware.TalonFX;
-import com.ctre.phoenix6.signals.*;
-import edu.wpi.first.units.measure.Angle;
+import edu.wpi.first.math.filter.Debouncer;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import edu.wpi.first.wpilibj2.command.button.Trigger;
 import frc.robot.Constants.BoathookConstants;
-import frc.robot.Constants.OperatorConstants;
 import frc.robot.Robot;
+import frc.robot.util.LoopProfiler;
+import org.littletonrobotics.junction.Logger;
 
 public class Boathook extends SubsystemBase {
   /** Creates a new Boathook. */
@@ -68,158 +62,134 @@ public class Boathook extends SubsystemBase {
   }
 
   private Level level = Level.L1;
+  private final LoopProfiler.Section periodicTiming =
+      LoopProfiler.section("Subsystems/Boathook");
   public double microRotationOffset = 0.0;
 
-  private static final TalonFX rotationMotor =
-      new TalonFX(BoathookConstants.ROTATION_MOTOR_ID, OperatorConstants.canivoreSerial);
-
-  private final TalonFX extenderMotor =
-      new TalonFX(BoathookConstants.EXTENDER_MOTOR_ID, OperatorConstants.canivoreSerial);
-
-  private final CANcoder rotationEncoder =
-      new CANcoder(BoathookConstants.ROTATION_ENCODER_ID, OperatorConstants.canivoreSerial);
-
-  private final CANcoder extensionEncoder =
-      new CANcoder(BoathookConstants.EXTENDER_ENCODER_ID, OperatorConstants.canivoreSerial);
-
-  private final CANdi limitSensors =
-      new CANdi(BoathookConstants.CANDI_ID, OperatorConstants.canivoreSerial);
-
-  public static final TalonFXConfiguration rotationConfig =
-      new TalonFXConfiguration()
-          .withCurrentLimits(
-              new CurrentLimitsConfigs()
-                  .withStatorCurrentLimit(80)
-                  .withStatorCurrentLimitEnable(true))
-          .withFeedback(
-              new FeedbackConfigs()
-                  .withFeedbackRemoteSensorID(BoathookConstants.ROTATION_ENCODER_ID)
-                  .withFeedbackSensorSource(FeedbackSensorSourceValue.RemoteCANcoder)
-                  .withRotorToSensorRatio(BoathookConstants.ROTATOR_GEAR_RATIO))
-          .withSoftwareLimitSwitch(
-              new SoftwareLimitSwitchConfigs()
-                  .withForwardSoftLimitEnable(true)
-                  .withForwardSoftLimitThreshold(BoathookConstants.ROTATOR_FORWARD_LIMIT))
-          // .withMotionMagic(
-          //     new MotionMagicConfigs()
-          //         .withMotionMagicAcceleration(4)
-          //         .withMotionMagicCruiseVelocity(1))
-          .withSlot0(
-              new Slot0Configs()
-                  .withKP(20)
-                  .withKD(0)
-                  .withKS(0)
-                  .withKG(0)
-                  .withGravityType(GravityTypeValue.Arm_Cosine)
-                  .withStaticFeedforwardSign(StaticFeedforwardSignValue.UseVelocitySign))
-          .withHardwareLimitSwitch(
-              new HardwareLimitSwitchConfigs()
-                  .withReverseLimitEnable(true)
-                  .withReverseLimitAutosetPositionEnable(true)
-                  .withReverseLimitAutosetPositionValue(BoathookConstants.ROTATOR_REVERSE_LIMIT)
-                  .withReverseLimitRemoteSensorID(BoathookConstants.CANDI_ID)
-                  .withReverseLimitSource(ReverseLimitSourceValue.RemoteCANdiS1)
-                  .withReverseLimitType(ReverseLimitTypeValue.NormallyOpen)
-                  .withForwardLimitEnable(false)
-                  .withForwardLimitAutosetPositionEnable(false));
-
-  private static final CANcoderConfiguration rotationEncoderConfig =
-      new CANcoderConfiguration()
-          .withMagnetSensor(
-              new MagnetSensorConfigs()
-                  .withMagnetOffset(-0.493431640625)
-                  .withSensorDirection(SensorDirectionValue.CounterClockwise_Positive));
-
-  public static final TalonFXConfiguration extenderConfig =
-      new TalonFXConfiguration()
-          .withCurrentLimits(
-              new CurrentLimitsConfigs()
-                  .withStatorCurrentLimit(80)
-                  .withStatorCurrentLimitEnable(true))
-          .withFeedback(
-              new FeedbackConfigs()
-                  .withFeedbackRemoteSensorID(BoathookConstants.EXTENDER_ENCODER_ID)
-                  .withFeedbackSensorSource(FeedbackSensorSourceValue.RemoteCANcoder)
-                  .withRotorToSensorRatio(25 * (34.0 / 24.0))
-                  .withSensorToMechanismRatio(1.8)
-                  .withFeedbackRotorOffset(0))
-          .withSoftwareLimitSwitch(
-              new SoftwareLimitSwitchConfigs()
-                  .withForwardSoftLimitEnable(true)
-                  .withForwardSoftLimitThreshold(BoathookConstants.EXTENDER_FORWARD_LIMIT)
-                  .withReverseSoftLimitEnable(false))
-          //          .withMotionMagic(
-          //              new MotionMagicConfigs()
-          //                  .withMotionMagicAcceleration(2)
-          //                  .withMotionMagicCruiseVelocity(1))
-          .withSlot0(new Slot0Configs().withKP(20).withKD(0).withKG(0))
-          .withMotorOutput(new MotorOutputConfigs().withInverted(InvertedValue.Clockwise_Positive))
-          .withHardwareLimitSwitch(
-              new HardwareLimitSwitchConfigs()
-                  .withReverseLimitEnable(true)
-                  .withReverseLimitAutosetPositionEnable(true)
-                  .withReverseLimitAutosetPositionValue(BoathookConstants.EXTENDER_REVERSE_LIMIT)
-                  .withReverseLimitRemoteSensorID(BoathookConstants.CANDI_ID)
-                  .withReverseLimitSource(ReverseLimitSourceValue.RemoteCANdiS2)
-                  .withReverseLimitType(ReverseLimitTypeValue.NormallyOpen)
-                  .withForwardLimitEnable(false)
-                  .withForwardLimitAutosetPositionEnable(false));
-
-  CANcoderConfiguration extensionEncoderConfig =
-      new CANcoderConfiguration()
-          .withMagnetSensor(
-              new MagnetSensorConfigs()
-                  .withMagnetOffset(0.15312765625) // 0.372
-                  .withSensorDirection(SensorDirectionValue.Clockwise_Positive));
-
-  CANdiConfiguration limitSensorsConfig =
-      new CANdiConfiguration()
-          .withDigitalInputs(
-              new DigitalInputsConfigs()
-                  .withS1CloseState(S1CloseStateValue.CloseWhenLow)
-                  .withS1FloatState(S1FloatStateValue.FloatDetect)
-                  .withS2CloseState(S2CloseStateValue.CloseWhenLow)
-                  .withS2FloatState(S2FloatStateValue.FloatDetect));
-
-  public Boathook() {
-    rotationMotor.setNeutralMode(NeutralModeValue.Brake);
-    extenderMotor.setNeutralMode(NeutralModeValue.Brake);
-    rotationMotor.getConfigurator().apply(rotationConfig);
-    rotationEncoder.getConfigurator().apply(rotationEncoderConfig);
-    extenderMotor.getConfigurator().apply(extenderConfig);
-    extensionEncoder.getConfigurator().apply(extensionEncoderConfig);
-    limitSensors.getConfigurator().apply(limitSensorsConfig);
+  // How close the boathook has to be to its goal to count as there
+  public static final double ANGLE_TOLERANCE_DEG = 5;
+  public static final double LENGTH_TOLERANCE_ROT = 0.1;
+
+  // How close the onboard profile's reference has to be to the goal to count as finished
+  private static final double ANGLE_PROFILE_DONE_DEG = 0.5;
+  private static final double LENGTH_PROFILE_DONE_ROT = 0.005;
+
+  // How long an axis has to stay at its goal before it counts as settled
+  private static final double SETTLE_TIME_SECS = 0.04;
+
+  private final BoathookIO io;
+  private final BoathookIOInputsAutoLogged inputs = new BoathookIOInputsAutoLogged();
+
+  // Last goals sent to the motor controllers, as opposed to their profiles' current references
+  private double angleGoal = BoathookConstants.IDLE_ANGLE;
+  private double lengthGoal = BoathookConstants.IDLE_EXTENSION;
+
+  // Worked out once per loop from the inputs, so commands waiting on a move don't each recheck it
+  private final Debouncer angleSettledDebouncer =
+      new Debouncer(SETTLE_TIME_SECS, Debouncer.DebounceType.kRising);
+  private final Debouncer lengthSettledDebouncer =
+      new Debouncer(SETTLE_TIME_SECS, Debouncer.DebounceType.kRising);
+  private boolean angleAtGoal = false;
+  private boolean lengthAtGoal = false;
+  private final Trigger angleAtGoalTrigger = new Trigger(() -> angleAtGoal);
+  private final Trigger lengthAtGoalTrigger = new Trigger(() -> lengthAtGoal);
+
+  public Boathook(BoathookIO io) {
+    this.io = io;
   }
 
+  /** Moves to an angle in degrees at full speed. */
   public void setAngle(double angle) {
-    rotationMotor.setControl(new PositionVoltage(angle / 360.0));
+    setAngle(
+        angle,
+        BoathookConstants.ROTATOR_MAX_VELOCITY * 360.0,
+        BoathookConstants.ROTATOR_MAX_ACCELERATION * 360.0);
+  }
+
+  /**
+   * Moves to an angle in degrees along a profile the motor controller runs, so one call starts the
+   * whole move.
+   */
+  public void setAngle(double angle, double maxVelocity, double maxAcceleration) {
+    // The forward soft limit would stop the arm short of anything past it
+    angleGoal = Math.min(angle, BoathookConstants.ROTATOR_FORWARD_LIMIT * 360.0);
+    angleAtGoal = angleSettledDebouncer.calculate(false);
+    io.setAngle(angleGoal, maxVelocity, maxAcceleration);
   }
 
   public double getAngle() {
-    StatusSignal<Angle> angle = rotationMotor.getPosition();
-    return angle.getValueAsDouble() * 360.0;
+    return inputs.rotationPositionDeg;
   }
 
   public double getAngleSetpoint() {
-    StatusSignal<Double> angle = rotationMotor.getClosedLoopReference();
-    return angle.getValueAsDouble() * 360;
+    return inputs.rotationSetpointDeg;
+  }
+
+  public double getAngleGoal() {
+    return angleGoal;
+  }
+
+  /**
+   * Returns whether the rotation profile has finished and the arm has stayed within tolerance of it
+   * for {@link #SETTLE_TIME_SECS}, as of the last loop.
+   */
+  public boolean isAngleAtGoal() {
+    return angleAtGoal;
+  }
+
+  /** Returns a trigger that is true while {@link #isAngleAtGoal()} is. */
+  public Trigger angleAtGoal() {
+    return angleAtGoalTrigger;
   }
 
+  /** Moves to a length in rotations at full speed. */
   public void setLength(double length) {
-    extenderMotor.setControl(new PositionVoltage(length));
+    setLength(
+        length,
+        BoathookConstants.EXTENDER_MAX_VELOCITY,
+        BoathookConstants.EXTENDER_MAX_ACCELERATION,
+        0.0);
+  }
+
+  /**
+   * Moves to a length in rotations along a profile the motor controller runs, so one call starts
+   * the whole move.
+   *
+   * @param maxJerk Jerk limit, or 0 for a trapezoid profile
+   */
+  public void setLength(double length, double maxVelocity, double maxAcceleration, double maxJerk) {
+    lengthGoal = Math.min(length, BoathookConstants.EXTENDER_FORWARD_LIMIT);
+    lengthAtGoal = lengthSettledDebouncer.calculate(false);
+    io.setLength(lengthGoal, maxVelocity, maxAcceleration, maxJerk);
   }
 
   public double getLength() {
-    StatusSignal<Angle> length = extenderMotor.getPosition();
-    return length.getValueAsDouble();
+    return inputs.extenderPositionRot;
   }
 
   public double getLengthSetpoint() {
-    return extenderMotor.getClosedLoopReference().getValueAsDouble();
+    return inputs.extenderSetpointRot;
+  }
+
+  public double getLengthGoal() {
+    return lengthGoal;
+  }
+
+  /**
+   * Returns whether the extension profile has finished and the hook has stayed within tolerance of
+   * it for {@link #SETTLE_TIME_SECS}, as of the last loop.
+   */
+  public boolean isLengthAtGoal() {
+    return lengthAtGoal;
+  }
+
+  /** Returns a trigger that is true while {@link #isLengthAtGoal()} is. */
+  public Trigger lengthAtGoal() {
+    return lengthAtGoalTrigger;
   }
 
   public void setBrakeExtender() {
-    extenderMotor.setControl(new StaticBrake());
+    io.setBrakeExtender();
   }
 
   public void setLevel(Level incomingLevel) {
@@ -231,14 +201,28 @@ public class Boathook extends SubsystemBase {
   }
 
   public void addInstruments() {
-    Robot.robotContainer.m_orchestra.addInstrument(rotationMotor);
-    Robot.robotContainer.m_orchestra.addInstrument(extenderMotor);
+    io.addInstruments(Robot.robotContainer.m_orchestra);
   }
 
   @Override
   public void periodic() {
     // This method will be called once per scheduler run
+    periodicTiming.start();
+    io.updateInputs(inputs);
+    Logger.processInputs("Boathook", inputs);
+
+    angleAtGoal =
+        angleSettledDebouncer.calculate(
+            Math.abs(inputs.rotationSetpointDeg - angleGoal) < ANGLE_PROFILE_DONE_DEG
+                && Math.abs(inputs.rotationPositionDeg - angleGoal) < ANGLE_TOLERANCE_DEG);
+    lengthAtGoal =
+        lengthSettledDebouncer.calculate(
+            Math.abs(inputs.extenderSetpointRot - lengthGoal) < LENGTH_PROFILE_DONE_ROT
+                && Math.abs(inputs.extenderPositionRot - lengthGoal) < LENGTH_TOLERANCE_ROT);
+    Logger.recordOutput("Boathook/AngleAtGoal", angleAtGoal);
+    Logger.recordOutput("Boathook/LengthAtGoal", lengthAtGoal);
     SmartDashboard.putNumber("Boathook Angle", getAngle());
     SmartDashboard.putNumber("Boathook Extension", getLength());
+    periodicTiming.stop();
   }
 }
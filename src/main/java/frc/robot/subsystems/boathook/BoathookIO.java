@@ -0,0 +1,55 @@
+package frc.robot.subsystems.boathook;
+
+import com.ctre.phoenix6.Orchestra;
+import org.littletonrobotics.junction.AutoLog;
+
+public interface BoathookIO {
+  @AutoLog
+  public static class BoathookIOInputs {
+    public boolean rotationConnected = false;
+    public double rotationPositionDeg = 0.0;
+    public double rotationSetpointDeg = 0.0;
+    public double rotationVelocityDegPerSec = 0.0;
+    public double rotationAppliedVolts = 0.0;
+    public double rotationCurrentAmps = 0.0;
+
+    // Extension is in mechanism rotations
+    public boolean extenderConnected = false;
+    public double extenderPositionRot = 0.0;
+    public double extenderSetpointRot = 0.0;
+    public double extenderVelocityRotPerSec = 0.0;
+    public double extenderAppliedVolts = 0.0;
+    public double extenderCurrentAmps = 0.0;
+  }
+
+  /** Updates the set of loggable inputs. */
+  public default void updateInputs(BoathookIOInputs inputs) {}
+
+  /**
+   * Run the rotation motor to the specified angle along a motion profile run by the motor
+   * controller.
+   *
+   * @param angle Goal angle in degrees
+   * @param maxVelocity Cruise velocity in degrees per second
+   * @param maxAcceleration Acceleration in degrees per second squared
+   */
+  public default void setAngle(double angle, double maxVelocity, double maxAcceleration) {}
+
+  /**
+   * Run the extender motor to the specified length along a motion profile run by the motor
+   * controller.
+   *
+   * @param length Goal length in rotations
+   * @param maxVelocity Cruise velocity in rotations per second
+   * @param maxAcceleration Acceleration in rotations per second squared
+   * @param maxJerk Jerk in rotations per second cubed, or 0 for a trapezoid profile
+   */
+  public default void setLength(
+      double length, double maxVelocity, double maxAcceleration, double maxJerk) {}
+
+  /** Hold the extender where it is with the motor shorted. */
+  public default void setBrakeExtender() {}
+
+  /** Adds the motors to the orchestra, if there are real ones. */
+  public default void addInstruments(Orchestra orchestra) {}
+}
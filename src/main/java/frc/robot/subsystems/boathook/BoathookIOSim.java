@@ -0,0 +1,169 @@
+package frc.robot.subsystems.boathook;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.simulation.ElevatorSim;
+import edu.wpi.first.wpilibj.simulation.SingleJointedArmSim;
+import frc.robot.Constants.BoathookConstants;
+
+/**
+ * Physics sim implementation of boathook IO. Rotation is a single jointed arm and extension is an
+ * elevator along the arm, both under gravity, geared like the real motors and run with the same
+ * gains and feedforward as the Talons. Moves follow a trapezoid profile stepped once per cycle in
+ * place of Motion Magic, and jerk limits are ignored. Simulation is always based on voltage
+ * control.
+ */
+public class BoathookIOSim implements BoathookIO {
+  // Estimates of the real mechanism, which isn't described anywhere else
+  private static final double ARM_LENGTH_METERS = 0.6;
+  private static final double ARM_MASS_KG = 1.5;
+  private static final double CARRIAGE_MASS_KG = 1.0;
+  private static final double DRUM_RADIUS_METERS = Units.inchesToMeters(2.0);
+
+  // Rotor rotations per mechanism rotation, matching the Talon feedback configs
+  private static final double EXTENDER_GEAR_RATIO = 25 * (34.0 / 24.0) * 1.8;
+
+  // Same gains as the Talons' slot 0, in volts per mechanism rotation
+  private static final double ROTATION_KP = 20.0;
+  private static final double EXTENDER_KP = 20.0;
+  private static final DCMotor ROTATION_GEARBOX = DCMotor.getKrakenX60(1);
+  private static final DCMotor EXTENDER_GEARBOX = DCMotor.getKrakenX60(1);
+
+  private static final double METERS_PER_ROTATION = 2.0 * Math.PI * DRUM_RADIUS_METERS;
+
+  // Voltage that holds the carriage against full gravity
+  private static final double EXTENDER_GRAVITY_VOLTS =
+      CARRIAGE_MASS_KG
+          * 9.81
+          * DRUM_RADIUS_METERS
+          / EXTENDER_GEAR_RATIO
+          / EXTENDER_GEARBOX.KtNMPerAmp
+          * EXTENDER_GEARBOX.rOhms;
+
+  private final SingleJointedArmSim rotationSim =
+      new SingleJointedArmSim(
+          ROTATION_GEARBOX,
+          BoathookConstants.ROTATOR_GEAR_RATIO,
+          SingleJointedArmSim.estimateMOI(ARM_LENGTH_METERS, ARM_MASS_KG),
+          ARM_LENGTH_METERS,
+          Units.rotationsToRadians(BoathookConstants.ROTATOR_REVERSE_LIMIT),
+          Units.rotationsToRadians(BoathookConstants.ROTATOR_FORWARD_LIMIT),
+          true,
+          Units.degreesToRadians(BoathookConstants.IDLE_ANGLE));
+  private final ElevatorSim extenderSim =
+      new ElevatorSim(
+          EXTENDER_GEARBOX,
+          EXTENDER_GEAR_RATIO,
+          CARRIAGE_MASS_KG,
+          DRUM_RADIUS_METERS,
+          BoathookConstants.EXTENDER_REVERSE_LIMIT * METERS_PER_ROTATION,
+          BoathookConstants.EXTENDER_FORWARD_LIMIT * METERS_PER_ROTATION,
+          true,
+          BoathookConstants.IDLE_EXTENSION * METERS_PER_ROTATION);
+
+  private final PIDController rotationController = new PIDController(ROTATION_KP, 0, 0);
+  private final PIDController extenderController = new PIDController(EXTENDER_KP, 0, 0);
+  private boolean rotationClosedLoop = false;
+  private boolean extenderClosedLoop = false;
+
+  // Profiles in mechanism rotations, like the Talons' Motion Magic references
+  private TrapezoidProfile rotationProfile = null;
+  private TrapezoidProfile extenderProfile = null;
+  private TrapezoidProfile.State rotationReference = new TrapezoidProfile.State();
+  private TrapezoidProfile.State extenderReference = new TrapezoidProfile.State();
+  private final TrapezoidProfile.State rotationGoal = new TrapezoidProfile.State();
+  private final TrapezoidProfile.State extenderGoal = new TrapezoidProfile.State();
+  private double rotationAppliedVolts = 0.0;
+  private double extenderAppliedVolts = 0.0;
+
+  @Override
+  public void updateInputs(BoathookIOInputs inputs) {
+    double angleRad = rotationSim.getAngleRads();
+
+    // Run closed-loop control
+    if (rotationClosedLoop) {
+      double previousVelocity = rotationReference.velocity;
+      rotationReference = rotationProfile.calculate(0.02, rotationReference, rotationGoal);
+      double acceleration = (rotationReference.velocity - previousVelocity) / 0.02;
+      rotationAppliedVolts =
+          rotationController.calculate(
+                  Units.radiansToRotations(angleRad), rotationReference.position)
+              + BoathookConstants.ROTATOR_KS * Math.signum(rotationReference.velocity)
+              + BoathookConstants.ROTATOR_KV * rotationReference.velocity
+              + BoathookConstants.ROTATOR_KA * acceleration
+              + BoathookConstants.ROTATOR_KG * Math.cos(angleRad);
+    } else {
+      rotationController.reset();
+    }
+    if (extenderClosedLoop) {
+      extenderReference = extenderProfile.calculate(0.02, extenderReference, extenderGoal);
+      extenderAppliedVolts =
+          extenderController.calculate(
+                  extenderSim.getPositionMeters() / METERS_PER_ROTATION, extenderReference.position)
+              + BoathookConstants.EXTENDER_KS * Math.signum(extenderReference.velocity)
+              + BoathookConstants.EXTENDER_KV * extenderReference.velocity;
+    } else {
+      extenderController.reset();
+    }
+
+    // Update simulation state. The elevator sim pulls straight down, so the part of gravity that
+    // doesn't act along the arm is taken back out.
+    rotationAppliedVolts = MathUtil.clamp(rotationAppliedVolts, -12.0, 12.0);
+    extenderAppliedVolts = MathUtil.clamp(extenderAppliedVolts, -12.0, 12.0);
+    rotationSim.setInputVoltage(rotationAppliedVolts);
+    extenderSim.setInputVoltage(
+        extenderAppliedVolts + EXTENDER_GRAVITY_VOLTS * (1.0 - Math.sin(angleRad)));
+    rotationSim.update(0.02);
+    extenderSim.update(0.02);
+
+    inputs.rotationConnected = true;
+    inputs.rotationPositionDeg = Units.radiansToDegrees(rotationSim.getAngleRads());
+    inputs.rotationSetpointDeg = rotationReference.position * 360.0;
+    inputs.rotationVelocityDegPerSec = Units.radiansToDegrees(rotationSim.getVelocityRadPerSec());
+    inputs.rotationAppliedVolts = rotationAppliedVolts;
+    inputs.rotationCurrentAmps = Math.abs(rotationSim.getCurrentDrawAmps());
+
+    inputs.extenderConnected = true;
+    inputs.extenderPositionRot = extenderSim.getPositionMeters() / METERS_PER_ROTATION;
+    inputs.extenderSetpointRot = extenderReference.position;
+    inputs.extenderVelocityRotPerSec =
+        extenderSim.getVelocityMetersPerSecond() / METERS_PER_ROTATION;
+    inputs.extenderAppliedVolts = extenderAppliedVolts;
+    inputs.extenderCurrentAmps = Math.abs(extenderSim.getCurrentDrawAmps());
+  }
+
+  @Override
+  public void setAngle(double angle, double maxVelocity, double maxAcceleration) {
+    if (!rotationClosedLoop) {
+      rotationReference =
+          new TrapezoidProfile.State(Units.radiansToRotations(rotationSim.getAngleRads()), 0.0);
+    }
+    rotationClosedLoop = true;
+    rotationProfile =
+        new TrapezoidProfile(
+            new TrapezoidProfile.Constraints(maxVelocity / 360.0, maxAcceleration / 360.0));
+    // The Talon's forward soft limit stops it short of the goal
+    rotationGoal.position = Math.min(angle / 360.0, BoathookConstants.ROTATOR_FORWARD_LIMIT);
+  }
+
+  @Override
+  public void setLength(double length, double maxVelocity, double maxAcceleration, double maxJerk) {
+    if (!extenderClosedLoop) {
+      extenderReference =
+          new TrapezoidProfile.State(extenderSim.getPositionMeters() / METERS_PER_ROTATION, 0.0);
+    }
+    extenderClosedLoop = true;
+    extenderProfile =
+        new TrapezoidProfile(new TrapezoidProfile.Constraints(maxVelocity, maxAcceleration));
+    extenderGoal.position = Math.min(length, BoathookConstants.EXTENDER_FORWARD_LIMIT);
+  }
+
+  @Override
+  public void setBrakeExtender() {
+    extenderClosedLoop = false;
+    extenderAppliedVolts = 0.0;
+  }
+}
@@ -0,0 +1,238 @@
+package frc.robot.subsystems.boathook;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.Orchestra;
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.configs.*;
+import com.ctre.phoenix6.controls.DynamicMotionMagicVoltage;
+import com.ctre.phoenix6.controls.StaticBrake;
+import com.ctre.phoenix6.hardware.CANcoder;
+import com.ctre.phoenix6.hardware.CANdi;
+import com.ctre.phoenix6.hardware.TalonFX;
+import com.ctre.phoenix6.signals.*;
+import edu.wpi.first.math.filter.Debouncer;
+import edu.wpi.first.units.measure.Angle;
+import edu.wpi.first.units.measure.AngularVelocity;
+import edu.wpi.first.units.measure.Current;
+import edu.wpi.first.units.measure.Voltage;
+import frc.robot.Constants.BoathookConstants;
+import frc.robot.Constants.OperatorConstants;
+import frc.robot.util.StatusSignalRegistry;
+
+/**
+ * Boathook IO implementation for the Talon FX rotation and extender motors, each closing the loop
+ * on a remote CANcoder, with their reverse limit switches on a CANdi.
+ */
+public class BoathookIOTalonFX implements BoathookIO {
+  private final TalonFX rotationMotor =
+      new TalonFX(BoathookConstants.ROTATION_MOTOR_ID, OperatorConstants.canivoreSerial);
+
+  private final TalonFX extenderMotor =
+      new TalonFX(BoathookConstants.EXTENDER_MOTOR_ID, OperatorConstants.canivoreSerial);
+
+  private final CANcoder rotationEncoder =
+      new CANcoder(BoathookConstants.ROTATION_ENCODER_ID, OperatorConstants.canivoreSerial);
+
+  private final CANcoder extensionEncoder =
+      new CANcoder(BoathookConstants.EXTENDER_ENCODER_ID, OperatorConstants.canivoreSerial);
+
+  private final CANdi limitSensors =
+      new CANdi(BoathookConstants.CANDI_ID, OperatorConstants.canivoreSerial);
+
+  private static final TalonFXConfiguration rotationConfig =
+      new TalonFXConfiguration()
+          .withCurrentLimits(
+              new CurrentLimitsConfigs()
+                  .withStatorCurrentLimit(80)
+                  .withStatorCurrentLimitEnable(true))
+          .withFeedback(
+              new FeedbackConfigs()
+                  .withFeedbackRemoteSensorID(BoathookConstants.ROTATION_ENCODER_ID)
+                  .withFeedbackSensorSource(FeedbackSensorSourceValue.RemoteCANcoder)
+                  .withRotorToSensorRatio(BoathookConstants.ROTATOR_GEAR_RATIO))
+          .withSoftwareLimitSwitch(
+              new SoftwareLimitSwitchConfigs()
+                  .withForwardSoftLimitEnable(true)
+                  .withForwardSoftLimitThreshold(BoathookConstants.ROTATOR_FORWARD_LIMIT))
+          .withMotionMagic(
+              new MotionMagicConfigs()
+                  .withMotionMagicAcceleration(BoathookConstants.ROTATOR_MAX_ACCELERATION)
+                  .withMotionMagicCruiseVelocity(BoathookConstants.ROTATOR_MAX_VELOCITY))
+          .withSlot0(
+              new Slot0Configs()
+                  .withKP(20)
+                  .withKD(0)
+                  .withKS(BoathookConstants.ROTATOR_KS)
+                  .withKV(BoathookConstants.ROTATOR_KV)
+                  .withKA(BoathookConstants.ROTATOR_KA)
+                  .withKG(BoathookConstants.ROTATOR_KG)
+                  .withGravityType(GravityTypeValue.Arm_Cosine)
+                  .withStaticFeedforwardSign(StaticFeedforwardSignValue.UseVelocitySign))
+          .withHardwareLimitSwitch(
+              new HardwareLimitSwitchConfigs()
+                  .withReverseLimitEnable(true)
+                  .withReverseLimitAutosetPositionEnable(true)
+                  .withReverseLimitAutosetPositionValue(BoathookConstants.ROTATOR_REVERSE_LIMIT)
+                  .withReverseLimitRemoteSensorID(BoathookConstants.CANDI_ID)
+                  .withReverseLimitSource(ReverseLimitSourceValue.RemoteCANdiS1)
+                  .withReverseLimitType(ReverseLimitTypeValue.NormallyOpen)
+                  .withForwardLimitEnable(false)
+                  .withForwardLimitAutosetPositionEnable(false));
+
+  private static final CANcoderConfiguration rotationEncoderConfig =
+      new CANcoderConfiguration()
+          .withMagnetSensor(
+              new MagnetSensorConfigs()
+                  .withMagnetOffset(-0.493431640625)
+                  .withSensorDirection(SensorDirectionValue.CounterClockwise_Positive));
+
+  private static final TalonFXConfiguration extenderConfig =
+      new TalonFXConfiguration()
+          .withCurrentLimits(
+              new CurrentLimitsConfigs()
+                  .withStatorCurrentLimit(80)
+                  .withStatorCurrentLimitEnable(true))
+          .withFeedback(
+              new FeedbackConfigs()
+                  .withFeedbackRemoteSensorID(BoathookConstants.EXTENDER_ENCODER_ID)
+                  .withFeedbackSensorSource(FeedbackSensorSourceValue.RemoteCANcoder)
+                  .withRotorToSensorRatio(25 * (34.0 / 24.0))
+                  .withSensorToMechanismRatio(1.8)
+                  .withFeedbackRotorOffset(0))
+          .withSoftwareLimitSwitch(
+              new SoftwareLimitSwitchConfigs()
+                  .withForwardSoftLimitEnable(true)
+                  .withForwardSoftLimitThreshold(BoathookConstants.EXTENDER_FORWARD_LIMIT)
+                  .withReverseSoftLimitEnable(false))
+          .withMotionMagic(
+              new MotionMagicConfigs()
+                  .withMotionMagicAcceleration(BoathookConstants.EXTENDER_MAX_ACCELERATION)
+                  .withMotionMagicCruiseVelocity(BoathookConstants.EXTENDER_MAX_VELOCITY))
+          .withSlot0(
+              new Slot0Configs()
+                  .withKP(20)
+                  .withKD(0)
+                  .withKS(BoathookConstants.EXTENDER_KS)
+                  .withKV(BoathookConstants.EXTENDER_KV)
+                  .withStaticFeedforwardSign(StaticFeedforwardSignValue.UseVelocitySign))
+          .withMotorOutput(new MotorOutputConfigs().withInverted(InvertedValue.Clockwise_Positive))
+          .withHardwareLimitSwitch(
+              new HardwareLimitSwitchConfigs()
+                  .withReverseLimitEnable(true)
+                  .withReverseLimitAutosetPositionEnable(true)
+                  .withReverseLimitAutosetPositionValue(BoathookConstants.EXTENDER_REVERSE_LIMIT)
+                  .withReverseLimitRemoteSensorID(BoathookConstants.CANDI_ID)
+                  .withReverseLimitSource(ReverseLimitSourceValue.RemoteCANdiS2)
+                  .withReverseLimitType(ReverseLimitTypeValue.NormallyOpen)
+                  .withForwardLimitEnable(false)
+                  .withForwardLimitAutosetPositionEnable(false));
+
+  private final CANcoderConfiguration extensionEncoderConfig =
+      new CANcoderConfiguration()
+          .withMagnetSensor(
+              new MagnetSensorConfigs()
+                  .withMagnetOffset(0.15312765625) // 0.372
+                  .withSensorDirection(SensorDirectionValue.Clockwise_Positive));
+
+  private final CANdiConfiguration limitSensorsConfig =
+      new CANdiConfiguration()
+          .withDigitalInputs(
+              new DigitalInputsConfigs()
+                  .withS1CloseState(S1CloseStateValue.CloseWhenLow)
+                  .withS1FloatState(S1FloatStateValue.FloatDetect)
+                  .withS2CloseState(S2CloseStateValue.CloseWhenLow)
+                  .withS2FloatState(S2FloatStateValue.FloatDetect));
+
+  // Reused for every move, the motor controllers run the profiles themselves
+  private final DynamicMotionMagicVoltage rotationRequest =
+      new DynamicMotionMagicVoltage(0.0, 0.0, 0.0, 0.0);
+  private final DynamicMotionMagicVoltage extenderRequest =
+      new DynamicMotionMagicVoltage(0.0, 0.0, 0.0, 0.0);
+  private final StaticBrake brakeRequest = new StaticBrake();
+
+  // Refreshed once per cycle by StatusSignalRegistry
+  private final StatusSignal<Angle> rotationPosition = rotationMotor.getPosition(false);
+  private final StatusSignal<Double> rotationReference =
+      rotationMotor.getClosedLoopReference(false);
+  private final StatusSignal<AngularVelocity> rotationVelocity = rotationMotor.getVelocity(false);
+  private final StatusSignal<Voltage> rotationAppliedVolts = rotationMotor.getMotorVoltage(false);
+  private final StatusSignal<Current> rotationCurrent = rotationMotor.getStatorCurrent(false);
+  private final StatusSignal<Angle> extenderPosition = extenderMotor.getPosition(false);
+  private final StatusSignal<Double> extenderReference =
+      extenderMotor.getClosedLoopReference(false);
+  private final StatusSignal<AngularVelocity> extenderVelocity = extenderMotor.getVelocity(false);
+  private final StatusSignal<Voltage> extenderAppliedVolts = extenderMotor.getMotorVoltage(false);
+  private final StatusSignal<Current> extenderCurrent = extenderMotor.getStatorCurrent(false);
+
+  private final BaseStatusSignal[] rotationSignals = {
+    rotationPosition, rotationReference, rotationVelocity, rotationAppliedVolts, rotationCurrent
+  };
+  private final BaseStatusSignal[] extenderSignals = {
+    extenderPosition, extenderReference, extenderVelocity, extenderAppliedVolts, extenderCurrent
+  };
+
+  private final Debouncer rotationConnectedDebounce = new Debouncer(0.5);
+  private final Debouncer extenderConnectedDebounce = new Debouncer(0.5);
+
+  public BoathookIOTalonFX() {
+    rotationMotor.setNeutralMode(NeutralModeValue.Brake);
+    extenderMotor.setNeutralMode(NeutralModeValue.Brake);
+    rotationMotor.getConfigurator().apply(rotationConfig);
+    rotationEncoder.getConfigurator().apply(rotationEncoderConfig);
+    extenderMotor.getConfigurator().apply(extenderConfig);
+    extensionEncoder.getConfigurator().apply(extensionEncoderConfig);
+    limitSensors.getConfigurator().apply(limitSensorsConfig);
+    StatusSignalRegistry.register(OperatorConstants.canivoreSerial, rotationSignals);
+    StatusSignalRegistry.register(OperatorConstants.canivoreSerial, extenderSignals);
+  }
+
+  @Override
+  public void updateInputs(BoathookIOInputs inputs) {
+    // Signals were already refreshed this cycle by StatusSignalRegistry
+    inputs.rotationConnected =
+        rotationConnectedDebounce.calculate(BaseStatusSignal.isAllGood(rotationSignals));
+    inputs.rotationPositionDeg = rotationPosition.getValueAsDouble() * 360.0;
+    inputs.rotationSetpointDeg = rotationReference.getValueAsDouble() * 360.0;
+    inputs.rotationVelocityDegPerSec = rotationVelocity.getValueAsDouble() * 360.0;
+    inputs.rotationAppliedVolts = rotationAppliedVolts.getValueAsDouble();
+    inputs.rotationCurrentAmps = rotationCurrent.getValueAsDouble();
+
+    inputs.extenderConnected =
+        extenderConnectedDebounce.calculate(BaseStatusSignal.isAllGood(extenderSignals));
+    inputs.extenderPositionRot = extenderPosition.getValueAsDouble();
+    inputs.extenderSetpointRot = extenderReference.getValueAsDouble();
+    inputs.extenderVelocityRotPerSec = extenderVelocity.getValueAsDouble();
+    inputs.extenderAppliedVolts = extenderAppliedVolts.getValueAsDouble();
+    inputs.extenderCurrentAmps = extenderCurrent.getValueAsDouble();
+  }
+
+  @Override
+  public void setAngle(double angle, double maxVelocity, double maxAcceleration) {
+    rotationMotor.setControl(
+        rotationRequest
+            .withPosition(angle / 360.0)
+            .withVelocity(maxVelocity / 360.0)
+            .withAcceleration(maxAcceleration / 360.0));
+  }
+
+  @Override
+  public void setLength(double length, double maxVelocity, double maxAcceleration, double maxJerk) {
+    extenderMotor.setControl(
+        extenderRequest
+            .withPosition(length)
+            .withVelocity(maxVelocity)
+            .withAcceleration(maxAcceleration)
+            .withJerk(maxJerk));
+  }
+
+  @Override
+  public void setBrakeExtender() {
+    extenderMotor.setControl(brakeRequest);
+  }
+
+  @Override
+  public void addInstruments(Orchestra orchestra) {
+    orchestra.addInstrument(rotationMotor);
+    orchestra.addInstrument(extenderMotor);
+  }
+}
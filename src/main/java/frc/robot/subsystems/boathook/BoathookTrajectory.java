@@ -0,0 +1,216 @@
+package frc.robot.subsystems.boathook;
+
+import edu.wpi.first.math.MathUtil;
+import frc.robot.Constants.BoathookConstants;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A coordinated move of both boathook axes through a list of goals. Each leg is a straight line in
+ * angle and length that both axes travel together, so they start and finish at the same time, on
+ * the fastest trapezoid profile that keeps each axis within its velocity and acceleration limits.
+ * Scaling that profile by each axis' distance gives the per-axis limits for the Talons' onboard
+ * profiles, so the legs can be run there.
+ *
+ * <p>The hook can't be extended while it is swung over the intake, below {@link
+ * BoathookConstants#MIN_EXTENDED_ANGLE}. A leg that would pass through that region goes by its
+ * corner instead, which is the shortest way around it. Goals are clamped to the soft limits.
+ */
+public class BoathookTrajectory {
+  private static final double MIN_ANGLE = BoathookConstants.ROTATOR_REVERSE_LIMIT * 360.0;
+  private static final double MAX_ANGLE = BoathookConstants.ROTATOR_FORWARD_LIMIT * 360.0;
+  private static final double MAX_ANGULAR_VELOCITY = BoathookConstants.ROTATOR_MAX_VELOCITY * 360.0;
+  private static final double MAX_ANGULAR_ACCELERATION =
+      BoathookConstants.ROTATOR_MAX_ACCELERATION * 360.0;
+
+  private static final State KEEP_OUT_CORNER =
+      new State(BoathookConstants.MIN_EXTENDED_ANGLE, BoathookConstants.MAX_STOWED_EXTENSION);
+
+  /**
+   * A boathook position.
+   *
+   * @param angle Angle in degrees
+   * @param length Extension in rotations
+   */
+  public record State(double angle, double length) {}
+
+  /**
+   * One straight leg of the move, run from rest to rest.
+   *
+   * @param maxVelocity Velocity limit along the leg, as a fraction of the leg per second
+   * @param maxAcceleration Acceleration limit along the leg, as a fraction of the leg per second
+   *     squared
+   */
+  public record Leg(
+      State start,
+      State end,
+      double startTime,
+      double duration,
+      double accelTime,
+      double maxVelocity,
+      double maxAcceleration) {
+    /** Returns the angular velocity limit that keeps rotation in step with extension. */
+    public double angularVelocity() {
+      return maxVelocity * Math.abs(end.angle() - start.angle());
+    }
+
+    /** Returns the angular acceleration limit that keeps rotation in step with extension. */
+    public double angularAcceleration() {
+      return maxAcceleration * Math.abs(end.angle() - start.angle());
+    }
+
+    /** Returns the extension velocity limit that keeps extension in step with rotation. */
+    public double lengthVelocity() {
+      return maxVelocity * Math.abs(end.length() - start.length());
+    }
+
+    /** Returns the extension acceleration limit that keeps extension in step with rotation. */
+    public double lengthAcceleration() {
+      return maxAcceleration * Math.abs(end.length() - start.length());
+    }
+  }
+
+  private final List<Leg> legs = new ArrayList<>();
+  private final State end;
+  private double totalTime = 0.0;
+
+  private BoathookTrajectory(State start, State... goals) {
+    State current = start;
+    if (isInKeepOut(current)) {
+      // Already in the way, so pull in before anything else
+      current = addLeg(current, new State(current.angle(), BoathookConstants.MAX_STOWED_EXTENSION));
+    }
+    for (State goal : goals) {
+      State clamped =
+          new State(
+              MathUtil.clamp(goal.angle(), MIN_ANGLE, MAX_ANGLE),
+              MathUtil.clamp(
+                  goal.length(),
+                  BoathookConstants.EXTENDER_REVERSE_LIMIT,
+                  BoathookConstants.EXTENDER_FORWARD_LIMIT));
+      if (crossesKeepOut(current, clamped)) {
+        current = addLeg(current, KEEP_OUT_CORNER);
+      }
+      current = addLeg(current, clamped);
+    }
+    end = current;
+  }
+
+  /**
+   * Plans a move from the current position through each goal in turn, stopping at each one.
+   *
+   * @param start Measured position of the boathook
+   * @param goals Positions to move through, the last one is where the move ends
+   */
+  public static BoathookTrajectory plan(State start, State... goals) {
+    return new BoathookTrajectory(start, goals);
+  }
+
+  /** Returns the position to be at the given time since the start of the move. */
+  public State sample(double time) {
+    for (Leg leg : legs) {
+      if (time < leg.startTime() + leg.duration()) {
+        double fraction = profileFraction(leg, time - leg.startTime());
+        return new State(
+            leg.start().angle() + (leg.end().angle() - leg.start().angle()) * fraction,
+            leg.start().length() + (leg.end().length() - leg.start().length()) * fraction);
+      }
+    }
+    return end;
+  }
+
+  /** Returns the legs of the move in order, empty if it is already at its goal. */
+  public List<Leg> getLegs() {
+    return Collections.unmodifiableList(legs);
+  }
+
+  /** Returns where the move ends, after clamping to the soft limits. */
+  public State getEnd() {
+    return end;
+  }
+
+  /** Returns how long the move takes. */
+  public double getTotalTimeSeconds() {
+    return totalTime;
+  }
+
+  private State addLeg(State from, State to) {
+    double angleDistance = Math.abs(to.angle() - from.angle());
+    double lengthDistance = Math.abs(to.length() - from.length());
+    if (angleDistance < 1e-6 && lengthDistance < 1e-6) {
+      return from;
+    }
+
+    // Velocity and acceleration limits along the leg, as a fraction of it, set by the slower axis
+    double maxVelocity = Double.POSITIVE_INFINITY;
+    double maxAcceleration = Double.POSITIVE_INFINITY;
+    if (angleDistance > 1e-6) {
+      maxVelocity = MAX_ANGULAR_VELOCITY / angleDistance;
+      maxAcceleration = MAX_ANGULAR_ACCELERATION / angleDistance;
+    }
+    if (lengthDistance > 1e-6) {
+      maxVelocity = Math.min(maxVelocity, BoathookConstants.EXTENDER_MAX_VELOCITY / lengthDistance);
+      maxAcceleration =
+          Math.min(maxAcceleration, BoathookConstants.EXTENDER_MAX_ACCELERATION / lengthDistance);
+    }
+
+    // Short legs never reach full speed and are a triangle profile
+    double accelTime = Math.min(maxVelocity / maxAcceleration, Math.sqrt(1.0 / maxAcceleration));
+    double peakVelocity = maxAcceleration * accelTime;
+    double cruiseTime = (1.0 - peakVelocity * accelTime) / peakVelocity;
+    double duration = 2.0 * accelTime + Math.max(cruiseTime, 0.0);
+
+    legs.add(new Leg(from, to, totalTime, duration, accelTime, maxVelocity, maxAcceleration));
+    totalTime += duration;
+    return to;
+  }
+
+  /** Returns how far along a leg the profile is, from 0 to 1. */
+  private static double profileFraction(Leg leg, double time) {
+    double accelTime = leg.accelTime();
+    double acceleration = 1.0 / (accelTime * (leg.duration() - accelTime));
+    if (time < accelTime) {
+      return 0.5 * acceleration * time * time;
+    }
+    double timeLeft = leg.duration() - time;
+    if (timeLeft < accelTime) {
+      return 1.0 - 0.5 * acceleration * timeLeft * timeLeft;
+    }
+    return acceleration * accelTime * (time - 0.5 * accelTime);
+  }
+
+  private static boolean isInKeepOut(State state) {
+    return state.angle() < BoathookConstants.MIN_EXTENDED_ANGLE
+        && state.length() > BoathookConstants.MAX_STOWED_EXTENSION;
+  }
+
+  /** Returns whether the straight line between two positions passes through the keep out region. */
+  private static boolean crossesKeepOut(State from, State to) {
+    // Clip the line to where angle < MIN_EXTENDED_ANGLE and length > MAX_STOWED_EXTENSION
+    double[] interval = {0.0, 1.0};
+    return clip(
+            interval,
+            BoathookConstants.MIN_EXTENDED_ANGLE - from.angle(),
+            from.angle() - to.angle())
+        && clip(
+            interval,
+            from.length() - BoathookConstants.MAX_STOWED_EXTENSION,
+            to.length() - from.length())
+        && interval[1] - interval[0] > 1e-9;
+  }
+
+  /** Narrows the interval to where offset + slope * t > 0, returning false if none is left. */
+  private static boolean clip(double[] interval, double offset, double slope) {
+    if (Math.abs(slope) < 1e-12) {
+      return offset > 0.0;
+    }
+    double root = -offset / slope;
+    if (slope > 0.0) {
+      interval[0] = Math.max(interval[0], root);
+    } else {
+      interval[1] = Math.min(interval[1], root);
+    }
+    return interval[0] < interval[1];
+  }
+}
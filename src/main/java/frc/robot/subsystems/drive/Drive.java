@@ -27,14 +27,11 @@ import edu.wpi.first.hal.FRCNetComm.tInstances;
 import edu.wpi.first.hal.FRCNetComm.tResourceType;
 import edu.wpi.first.hal.HAL;
 import edu.wpi.first.math.Matrix;
-import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
-import edu.wpi.first.math.geometry.Twist2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
-import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
 import edu.wpi.first.math.numbers.N1;
 import edu.wpi.first.math.numbers.N3;
@@ -43,18 +40,18 @@ import edu.wpi.first.wpilibj.Alert;
 import edu.wpi.first.wpilibj.Alert.AlertType;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine;
 import frc.robot.Constants;
+import frc.robot.Constants.DriveConstants;
 import frc.robot.Constants.Mode;
 import frc.robot.generated.TunerConstants;
+import frc.robot.subsystems.drive.OdometryFrame.Column;
 import frc.robot.util.LocalADStarAK;
-import frc.robot.util.limelight.LimelightHelpers;
-import frc.robot.util.limelight.Limelights;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import frc.robot.util.LoopProfiler;
 import org.littletonrobotics.junction.AutoLogOutput;
 import org.littletonrobotics.junction.Logger;
 
@@ -75,7 +72,7 @@ public class Drive extends SubsystemBase {
   private static final double ROBOT_MASS_KG = 74.088;
   private static final double ROBOT_MOI = 6.883;
   private static final double WHEEL_COF = 1.2;
-  private static final RobotConfig PP_CONFIG =
+  public static final RobotConfig PP_CONFIG =
       new RobotConfig(
           ROBOT_MASS_KG,
           ROBOT_MOI,
@@ -88,29 +85,27 @@ public class Drive extends SubsystemBase {
               TunerConstants.FrontLeft.SlipCurrent,
               1),
           getModuleTranslations());
+  public static final PIDConstants PP_TRANSLATION_PID = new PIDConstants(5.0, 0.0, 0.0);
+  public static final PIDConstants PP_ROTATION_PID = new PIDConstants(20.0, 0.0, 0.0);
 
-  static final Lock odometryLock = new ReentrantLock();
   private final GyroIO gyroIO;
   private final GyroIOInputsAutoLogged gyroInputs = new GyroIOInputsAutoLogged();
   private final Module[] modules = new Module[4]; // FL, FR, BL, BR
+  private final OdometryFrame odometryFrame =
+      new OdometryFrame(DriveConstants.ODOMETRY_FRAME_CAPACITY);
   private final SysIdRoutine sysId;
   private final Alert gyroDisconnectedAlert =
       new Alert("Disconnected gyro, using kinematics as fallback.", AlertType.kError);
 
   private SwerveDriveKinematics kinematics = new SwerveDriveKinematics(getModuleTranslations());
-  private Rotation2d rawGyroRotation = new Rotation2d();
-  private SwerveModulePosition[] lastModulePositions = // For delta tracking
-      new SwerveModulePosition[] {
-        new SwerveModulePosition(),
-        new SwerveModulePosition(),
-        new SwerveModulePosition(),
-        new SwerveModulePosition()
-      };
-  private SwerveDrivePoseEstimator poseEstimator =
-      new SwerveDrivePoseEstimator(kinematics, rawGyroRotation, lastModulePositions, new Pose2d());
-
-  @AutoLogOutput private Pose2d leftPose;
-  @AutoLogOutput public Pose2d rightPose;
+  private final LoopProfiler.Section periodicTiming = LoopProfiler.section("Subsystems/Drive");
+  private final FramePoseEstimator poseEstimator =
+      new FramePoseEstimator(getModuleTranslations(), ODOMETRY_FREQUENCY);
+
+  private final LocalADStarAK pathfinder = new LocalADStarAK();
+
+  // Estimator output, snapshotted whenever the estimator changes so getPose() is a field read
+  private Pose2d pose = new Pose2d();
 
   public Drive(
       GyroIO gyroIO,
@@ -136,12 +131,11 @@ public class Drive extends SubsystemBase {
         this::setPose,
         this::getChassisSpeeds,
         this::runVelocity,
-        new PPHolonomicDriveController(
-            new PIDConstants(5.0, 0.0, 0.0), new PIDConstants(20.0, 0.0, 0.0)),
+        new PPHolonomicDriveController(PP_TRANSLATION_PID, PP_ROTATION_PID),
         PP_CONFIG,
         () -> DriverStation.getAlliance().orElse(Alliance.Blue) == Alliance.Red,
         this);
-    Pathfinding.setPathfinder(new LocalADStarAK());
+    Pathfinding.setPathfinder(pathfinder);
     PathPlannerLogging.setLogActivePathCallback(
         (activePath) -> {
           Logger.recordOutput(
@@ -166,13 +160,29 @@ public class Drive extends SubsystemBase {
 
   @Override
   public void periodic() {
-    odometryLock.lock(); // Prevents odometry updates while reading data
+    periodicTiming.start();
     gyroIO.updateInputs(gyroInputs);
     Logger.processInputs("Drive/Gyro", gyroInputs);
     for (var module : modules) {
       module.periodic();
     }
-    odometryLock.unlock();
+
+    // Collect the odometry frames sampled since the last cycle
+    if (Constants.currentMode == Mode.SIM) {
+      // There is no odometry thread in sim, so take one frame from the current state
+      odometryFrame.clear();
+      int frame = odometryFrame.addFrame(Timer.getFPGATimestamp());
+      for (int i = 0; i < 4; i++) {
+        odometryFrame.set(frame, Column.DRIVE_POSITION, i, modules[i].getPositionMeters());
+        odometryFrame.set(frame, Column.TURN_POSITION, i, modules[i].getAngle().getRadians());
+      }
+      odometryFrame.set(frame, Column.YAW, 0, gyroInputs.yawPosition.getRadians());
+    } else {
+      PhoenixOdometryThread.getInstance().poll(odometryFrame);
+    }
+    Logger.processInputs("Drive/Odometry", odometryFrame);
+    Logger.recordOutput(
+        "Odometry/DroppedSamples", PhoenixOdometryThread.getInstance().getDroppedSampleCount());
 
     // Stop moving when disabled
     if (DriverStation.isDisabled()) {
@@ -188,41 +198,23 @@ public class Drive extends SubsystemBase {
     }
 
     // Update odometry
-    double[] sampleTimestamps =
-        modules[0].getOdometryTimestamps(); // All signals are sampled together
-    int sampleCount = sampleTimestamps.length;
-    for (int i = 0; i < sampleCount; i++) {
-      // Read wheel positions and deltas from each module
-      SwerveModulePosition[] modulePositions = new SwerveModulePosition[4];
-      SwerveModulePosition[] moduleDeltas = new SwerveModulePosition[4];
-      for (int moduleIndex = 0; moduleIndex < 4; moduleIndex++) {
-        modulePositions[moduleIndex] = modules[moduleIndex].getOdometryPositions()[i];
-        moduleDeltas[moduleIndex] =
-            new SwerveModulePosition(
-                modulePositions[moduleIndex].distanceMeters
-                    - lastModulePositions[moduleIndex].distanceMeters,
-                modulePositions[moduleIndex].angle);
-        lastModulePositions[moduleIndex] = modulePositions[moduleIndex];
-      }
-
-      // Update gyro angle
-      if (gyroInputs.connected) {
-        // Use the real gyro angle
-        rawGyroRotation = gyroInputs.odometryYawPositions[i];
-      } else {
-        // Use the angle delta from the kinematics and module deltas
-        Twist2d twist = kinematics.toTwist2d(moduleDeltas);
-        rawGyroRotation = rawGyroRotation.plus(new Rotation2d(twist.dtheta));
-      }
-
-      // Apply update
-      poseEstimator.updateWithTime(sampleTimestamps[i], rawGyroRotation, modulePositions);
-      SmartDashboard.putNumber("X Velocity", getChassisSpeeds().vxMetersPerSecond);
-      SmartDashboard.putNumber("Y Velocity", getChassisSpeeds().vyMetersPerSecond);
-    }
+    updateOdometry(odometryFrame);
+    pose = poseEstimator.getEstimatedPosition();
+    ChassisSpeeds measuredSpeeds = getChassisSpeeds();
+    SmartDashboard.putNumber("X Velocity", measuredSpeeds.vxMetersPerSecond);
+    SmartDashboard.putNumber("Y Velocity", measuredSpeeds.vyMetersPerSecond);
 
     // Update gyro alert
     gyroDisconnectedAlert.set(!gyroInputs.connected && Constants.currentMode != Mode.SIM);
+    periodicTiming.stop();
+  }
+
+  /**
+   * Integrates a batch of odometry frames into the pose estimator. Allocates nothing, the estimator
+   * keeps every angle as a cosine and sine and its pose history in primitive arrays.
+   */
+  void updateOdometry(OdometryFrame frame) {
+    poseEstimator.update(frame, gyroInputs.connected);
   }
 
   /**
@@ -296,18 +288,9 @@ public class Drive extends SubsystemBase {
     return states;
   }
 
-  /** Returns the module positions (turn angles and drive positions) for all of the modules. */
-  private SwerveModulePosition[] getModulePositions() {
-    SwerveModulePosition[] states = new SwerveModulePosition[4];
-    for (int i = 0; i < 4; i++) {
-      states[i] = modules[i].getPosition();
-    }
-    return states;
-  }
-
   /** Returns the measured chassis speeds of the robot. */
   @AutoLogOutput(key = "SwerveChassisSpeeds/Measured")
-  private ChassisSpeeds getChassisSpeeds() {
+  public ChassisSpeeds getChassisSpeeds() {
     return kinematics.toChassisSpeeds(getModuleStates());
   }
 
@@ -329,35 +312,44 @@ public class Drive extends SubsystemBase {
     return output;
   }
 
-  /** Returns the current odometry pose. */
+  /**
+   * Returns the current odometry pose. The pose is a snapshot taken after the odometry update and
+   * after each vision measurement or reset, so every command in a cycle sees the same value.
+   */
   @AutoLogOutput(key = "Odometry/Robot")
   public Pose2d getPose() {
-    rightPose = LimelightHelpers.getBotPose2d_wpiBlue(Limelights.RIGHT.name);
-    leftPose = LimelightHelpers.getBotPose2d_wpiBlue(Limelights.LEFT.name);
-    return poseEstimator.getEstimatedPosition();
+    return pose;
   }
 
   /** Returns the current odometry rotation. */
   public Rotation2d getRotation() {
-    return getPose().getRotation();
+    return pose.getRotation();
+  }
+
+  /** Returns the pathfinder installed for PathPlanner. */
+  public LocalADStarAK getPathfinder() {
+    return pathfinder;
+  }
+
+  /** Returns the gyro yaw rate in radians per second. */
+  public double getYawVelocityRadPerSec() {
+    return gyroInputs.yawVelocityRadPerSec;
   }
 
   /** Resets the current odometry pose. */
   public void setPose(Pose2d pose) {
-    poseEstimator.resetPosition(rawGyroRotation, getModulePositions(), pose);
+    poseEstimator.resetPose(pose);
+    this.pose = poseEstimator.getEstimatedPosition();
   }
 
   /** Adds a new timestamped vision measurement. */
   public void addVisionMeasurement(
-      String name,
       Pose2d visionRobotPoseMeters,
       double timestampSeconds,
       Matrix<N3, N1> visionMeasurementStdDevs) {
-
-    if (LimelightHelpers.getTV(name)) {
-      poseEstimator.addVisionMeasurement(
-          visionRobotPoseMeters, timestampSeconds, visionMeasurementStdDevs);
-    }
+    poseEstimator.addVisionMeasurement(
+        visionRobotPoseMeters, timestampSeconds, visionMeasurementStdDevs);
+    pose = poseEstimator.getEstimatedPosition();
   }
 
   /** Returns the maximum linear speed in meters per sec. */
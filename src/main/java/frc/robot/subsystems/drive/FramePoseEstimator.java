@@ -0,0 +1,372 @@
+package frc.robot.subsystems.drive;
+
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.geometry.Twist2d;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+import java.util.TreeMap;
+import org.ejml.simple.SimpleMatrix;
+
+/**
+ * Swerve pose estimator fed from {@link OdometryFrame} batches. It follows the same model as
+ * WPILib's SwerveDrivePoseEstimator: odometry integrates each frame's module deltas and gyro yaw, a
+ * history of odometry poses covers the last {@link #HISTORY_SECS}, and each vision measurement is
+ * blended in at its timestamp with a closed-form Kalman gain and carried forward by the odometry
+ * since.
+ *
+ * <p>WPILib's estimator allocates several objects for every sample. Here every angle on the
+ * odometry path is kept as a cosine and sine that is updated in place, the forward kinematics are a
+ * precomputed matrix, and the history is a primitive ring, so {@link #update(OdometryFrame,
+ * boolean)} allocates nothing. Vision measurements and {@link #getEstimatedPosition()} still
+ * allocate, but they run a few times per cycle rather than once per sample.
+ */
+public class FramePoseEstimator {
+  private static final double HISTORY_SECS = 1.5;
+
+  // Odometry variance for x, y and heading, WPILib's default of 0.1 standard deviation
+  private static final double STATE_VARIANCE = 0.1 * 0.1;
+
+  // Maps module deltas (x0, y0, x1, y1, ...) to the chassis twist (dx, dy, dtheta)
+  private final double[][] forwardKinematics;
+
+  // Last sampled module positions, the angles are only recomputed when they change
+  private final double[] moduleDistancesMeters = new double[OdometryFrame.MODULE_COUNT];
+  private final double[] moduleAnglesRad = new double[OdometryFrame.MODULE_COUNT];
+  private final double[] moduleCos = new double[OdometryFrame.MODULE_COUNT];
+  private final double[] moduleSin = new double[OdometryFrame.MODULE_COUNT];
+
+  // Raw gyro angle. The yaw is NaN while the angle is integrated from the kinematics instead.
+  private double gyroYawRad = 0.0;
+  private double gyroCos = 1.0;
+  private double gyroSin = 0.0;
+
+  // Rotation from the raw gyro angle to the field heading, set on reset
+  private double offsetCos = 1.0;
+  private double offsetSin = 0.0;
+
+  // Odometry pose
+  private double odometryX = 0.0;
+  private double odometryY = 0.0;
+  private double odometryCos = 1.0;
+  private double odometrySin = 0.0;
+
+  // Odometry pose history, oldest first from historyStart
+  private final double[] historyTimes;
+  private final double[] historyX;
+  private final double[] historyY;
+  private final double[] historyCos;
+  private final double[] historySin;
+  private int historyStart = 0;
+  private int historySize = 0;
+
+  // Vision updates by measurement time. Only the latest one moves the estimate, so it is also kept
+  // as a rigid correction: estimate = visionAnchor + correction * (odometry - odometryAnchor).
+  private final TreeMap<Double, VisionUpdate> visionUpdates = new TreeMap<>();
+  private double odometryAnchorX = 0.0;
+  private double odometryAnchorY = 0.0;
+  private double visionAnchorX = 0.0;
+  private double visionAnchorY = 0.0;
+  private double correctionCos = 1.0;
+  private double correctionSin = 0.0;
+
+  /** A vision-corrected pose and the odometry pose at the same moment. */
+  private record VisionUpdate(Pose2d visionPose, Pose2d odometryPose) {
+    Pose2d compensate(Pose2d pose) {
+      return visionPose.plus(pose.minus(odometryPose));
+    }
+  }
+
+  /**
+   * Creates an estimator at the origin with every module at zero.
+   *
+   * @param moduleTranslations Module positions relative to the robot center, in frame order
+   * @param sampleRateHz Highest rate frames arrive at, used to size the pose history
+   */
+  public FramePoseEstimator(Translation2d[] moduleTranslations, double sampleRateHz) {
+    if (moduleTranslations.length != OdometryFrame.MODULE_COUNT) {
+      throw new IllegalArgumentException(
+          "Expected " + OdometryFrame.MODULE_COUNT + " modules, got " + moduleTranslations.length);
+    }
+
+    // Same least squares solution as SwerveDriveKinematics
+    SimpleMatrix inverseKinematics = new SimpleMatrix(moduleTranslations.length * 2, 3);
+    for (int i = 0; i < moduleTranslations.length; i++) {
+      inverseKinematics.setRow(i * 2, 0, 1, 0, -moduleTranslations[i].getY());
+      inverseKinematics.setRow(i * 2 + 1, 0, 0, 1, moduleTranslations[i].getX());
+    }
+    SimpleMatrix pseudoInverse = inverseKinematics.pseudoInverse();
+    forwardKinematics = new double[3][moduleTranslations.length * 2];
+    for (int row = 0; row < 3; row++) {
+      for (int column = 0; column < moduleTranslations.length * 2; column++) {
+        forwardKinematics[row][column] = pseudoInverse.get(row, column);
+      }
+    }
+    for (int i = 0; i < OdometryFrame.MODULE_COUNT; i++) {
+      moduleCos[i] = 1.0;
+    }
+
+    // Twice the nominal count, so timestamp jitter never shortens the history
+    int capacity = (int) Math.ceil(2.0 * HISTORY_SECS * sampleRateHz) + 1;
+    historyTimes = new double[capacity];
+    historyX = new double[capacity];
+    historyY = new double[capacity];
+    historyCos = new double[capacity];
+    historySin = new double[capacity];
+  }
+
+  /**
+   * Integrates every frame in the batch, in order. Allocates nothing.
+   *
+   * @param gyroConnected Whether to use the sampled yaw, otherwise the heading is integrated from
+   *     the module deltas
+   */
+  public void update(OdometryFrame frame, boolean gyroConnected) {
+    int frameCount = frame.getFrameCount();
+    for (int i = 0; i < frameCount; i++) {
+      // Chassis twist from the module deltas, each at its newly sampled angle
+      double twistX = 0.0;
+      double twistY = 0.0;
+      double twistTheta = 0.0;
+      for (int module = 0; module < OdometryFrame.MODULE_COUNT; module++) {
+        double angleRad = frame.getTurnPositionRad(i, module);
+        if (angleRad != moduleAnglesRad[module]) {
+          moduleAnglesRad[module] = angleRad;
+          moduleCos[module] = Math.cos(angleRad);
+          moduleSin[module] = Math.sin(angleRad);
+        }
+        double distanceMeters = frame.getDrivePositionMeters(i, module);
+        double deltaMeters = distanceMeters - moduleDistancesMeters[module];
+        moduleDistancesMeters[module] = distanceMeters;
+
+        double deltaX = deltaMeters * moduleCos[module];
+        double deltaY = deltaMeters * moduleSin[module];
+        int column = module * 2;
+        twistX += forwardKinematics[0][column] * deltaX + forwardKinematics[0][column + 1] * deltaY;
+        twistY += forwardKinematics[1][column] * deltaX + forwardKinematics[1][column + 1] * deltaY;
+        twistTheta +=
+            forwardKinematics[2][column] * deltaX + forwardKinematics[2][column + 1] * deltaY;
+      }
+
+      // Update gyro angle
+      if (gyroConnected) {
+        // Use the real gyro angle
+        double yawRad = frame.getYawPositionRad(i);
+        if (yawRad != gyroYawRad) {
+          gyroYawRad = yawRad;
+          gyroCos = Math.cos(yawRad);
+          gyroSin = Math.sin(yawRad);
+        }
+      } else {
+        // Use the angle delta from the kinematics and module deltas
+        double cos = Math.cos(twistTheta);
+        double sin = Math.sin(twistTheta);
+        double newCos = gyroCos * cos - gyroSin * sin;
+        double newSin = gyroCos * sin + gyroSin * cos;
+        double norm = Math.hypot(newCos, newSin);
+        gyroYawRad = Double.NaN;
+        gyroCos = newCos / norm;
+        gyroSin = newSin / norm;
+      }
+
+      // The heading change comes from the gyro rather than the kinematics
+      double headingCos = gyroCos * offsetCos - gyroSin * offsetSin;
+      double headingSin = gyroCos * offsetSin + gyroSin * offsetCos;
+      twistTheta =
+          Math.atan2(
+              headingSin * odometryCos - headingCos * odometrySin,
+              headingCos * odometryCos + headingSin * odometrySin);
+
+      // Pose exponential, as in Pose2d.exp
+      double sinTheta = Math.sin(twistTheta);
+      double cosTheta = Math.cos(twistTheta);
+      double s;
+      double c;
+      if (Math.abs(twistTheta) < 1e-9) {
+        s = 1.0 - 1.0 / 6.0 * twistTheta * twistTheta;
+        c = 0.5 * twistTheta;
+      } else {
+        s = sinTheta / twistTheta;
+        c = (1 - cosTheta) / twistTheta;
+      }
+      double moveX = twistX * s - twistY * c;
+      double moveY = twistX * c + twistY * s;
+      odometryX += moveX * odometryCos - moveY * odometrySin;
+      odometryY += moveX * odometrySin + moveY * odometryCos;
+      odometryCos = headingCos;
+      odometrySin = headingSin;
+
+      addHistory(frame.getTimestamp(i));
+    }
+  }
+
+  /** Records the odometry pose, dropping samples that have aged out of the history. */
+  private void addHistory(double timestamp) {
+    while (historySize > 0 && timestamp - historyTimes[historyStart] >= HISTORY_SECS) {
+      historyStart = (historyStart + 1) % historyTimes.length;
+      historySize--;
+    }
+    if (historySize == historyTimes.length) {
+      historyStart = (historyStart + 1) % historyTimes.length;
+      historySize--;
+    }
+    int index = (historyStart + historySize) % historyTimes.length;
+    historyTimes[index] = timestamp;
+    historyX[index] = odometryX;
+    historyY[index] = odometryY;
+    historyCos[index] = odometryCos;
+    historySin[index] = odometrySin;
+    historySize++;
+  }
+
+  /**
+   * Resets the estimate to the given pose, keeping the last sampled module positions and gyro angle
+   * as the new reference. Clears the pose history and every vision update.
+   */
+  public void resetPose(Pose2d pose) {
+    double poseCos = pose.getRotation().getCos();
+    double poseSin = pose.getRotation().getSin();
+    offsetCos = poseCos * gyroCos + poseSin * gyroSin;
+    offsetSin = poseSin * gyroCos - poseCos * gyroSin;
+    odometryX = pose.getX();
+    odometryY = pose.getY();
+    odometryCos = poseCos;
+    odometrySin = poseSin;
+
+    historyStart = 0;
+    historySize = 0;
+    visionUpdates.clear();
+    setCorrection(null);
+  }
+
+  /**
+   * Adds a timestamped vision measurement. Measurements older than the pose history are ignored.
+   *
+   * @param visionRobotPoseMeters Robot pose measured by vision
+   * @param timestampSeconds FPGA timestamp of the measurement
+   * @param visionMeasurementStdDevs Standard deviations of the measurement in x, y and heading
+   */
+  public void addVisionMeasurement(
+      Pose2d visionRobotPoseMeters,
+      double timestampSeconds,
+      Matrix<N3, N1> visionMeasurementStdDevs) {
+    if (historySize == 0 || newestHistoryTime() - HISTORY_SECS > timestampSeconds) {
+      return;
+    }
+    cleanUpVisionUpdates();
+
+    // Move the estimate at the time of the measurement towards it, by the Kalman gain
+    Pose2d odometrySample = sampleOdometry(timestampSeconds);
+    Pose2d estimateSample = sampleEstimate(timestampSeconds);
+    Twist2d twist = estimateSample.log(visionRobotPoseMeters);
+    Twist2d scaledTwist =
+        new Twist2d(
+            twist.dx * visionGain(visionMeasurementStdDevs.get(0, 0)),
+            twist.dy * visionGain(visionMeasurementStdDevs.get(1, 0)),
+            twist.dtheta * visionGain(visionMeasurementStdDevs.get(2, 0)));
+    VisionUpdate visionUpdate = new VisionUpdate(estimateSample.exp(scaledTwist), odometrySample);
+
+    // Later updates were built on the old estimate, so they are dropped
+    visionUpdates.put(timestampSeconds, visionUpdate);
+    visionUpdates.tailMap(timestampSeconds, false).clear();
+    setCorrection(visionUpdate);
+  }
+
+  /** Closed-form Kalman gain for a continuous filter with A = 0 and C = I, as in WPILib. */
+  private static double visionGain(double stdDev) {
+    double visionVariance = stdDev * stdDev;
+    return STATE_VARIANCE / (STATE_VARIANCE + Math.sqrt(STATE_VARIANCE * visionVariance));
+  }
+
+  /** Drops vision updates that no sample left in the history can be corrected by. */
+  private void cleanUpVisionUpdates() {
+    if (historySize == 0 || visionUpdates.isEmpty()) {
+      return;
+    }
+    double oldestTime = historyTimes[historyStart];
+    if (oldestTime < visionUpdates.firstKey()) {
+      return;
+    }
+    double newestNeededTime = visionUpdates.floorKey(oldestTime);
+    visionUpdates.headMap(newestNeededTime, false).clear();
+  }
+
+  /** Stores the latest vision update as a rigid correction, or none for a null update. */
+  private void setCorrection(VisionUpdate visionUpdate) {
+    if (visionUpdate == null) {
+      odometryAnchorX = 0.0;
+      odometryAnchorY = 0.0;
+      visionAnchorX = 0.0;
+      visionAnchorY = 0.0;
+      correctionCos = 1.0;
+      correctionSin = 0.0;
+      return;
+    }
+    Rotation2d correction =
+        visionUpdate.visionPose().getRotation().minus(visionUpdate.odometryPose().getRotation());
+    odometryAnchorX = visionUpdate.odometryPose().getX();
+    odometryAnchorY = visionUpdate.odometryPose().getY();
+    visionAnchorX = visionUpdate.visionPose().getX();
+    visionAnchorY = visionUpdate.visionPose().getY();
+    correctionCos = correction.getCos();
+    correctionSin = correction.getSin();
+  }
+
+  /** Returns the odometry pose at the given time, interpolated between history samples. */
+  private Pose2d sampleOdometry(double timestamp) {
+    int newest = (historyStart + historySize - 1) % historyTimes.length;
+    if (timestamp <= historyTimes[historyStart]) {
+      return historyPose(historyStart);
+    }
+    if (timestamp >= historyTimes[newest]) {
+      return historyPose(newest);
+    }
+    int after = historyStart;
+    for (int i = 1; i < historySize; i++) {
+      after = (historyStart + i) % historyTimes.length;
+      if (historyTimes[after] >= timestamp) {
+        break;
+      }
+    }
+    int before = (after - 1 + historyTimes.length) % historyTimes.length;
+    if (historyTimes[after] == timestamp) {
+      return historyPose(after);
+    }
+    double t = (timestamp - historyTimes[before]) / (historyTimes[after] - historyTimes[before]);
+    return historyPose(before).interpolate(historyPose(after), t);
+  }
+
+  /** Returns the vision-corrected estimate at the given time. */
+  private Pose2d sampleEstimate(double timestamp) {
+    int newest = (historyStart + historySize - 1) % historyTimes.length;
+    timestamp = Math.max(historyTimes[historyStart], Math.min(timestamp, historyTimes[newest]));
+    Pose2d odometryPose = sampleOdometry(timestamp);
+    if (visionUpdates.isEmpty() || timestamp < visionUpdates.firstKey()) {
+      return odometryPose;
+    }
+    return visionUpdates.floorEntry(timestamp).getValue().compensate(odometryPose);
+  }
+
+  private Pose2d historyPose(int index) {
+    return new Pose2d(
+        historyX[index], historyY[index], new Rotation2d(historyCos[index], historySin[index]));
+  }
+
+  private double newestHistoryTime() {
+    return historyTimes[(historyStart + historySize - 1) % historyTimes.length];
+  }
+
+  /** Returns the current estimate. Allocates a new pose. */
+  public Pose2d getEstimatedPosition() {
+    double offsetX = odometryX - odometryAnchorX;
+    double offsetY = odometryY - odometryAnchorY;
+    return new Pose2d(
+        visionAnchorX + offsetX * correctionCos - offsetY * correctionSin,
+        visionAnchorY + offsetX * correctionSin + offsetY * correctionCos,
+        new Rotation2d(
+            odometryCos * correctionCos - odometrySin * correctionSin,
+            odometryCos * correctionSin + odometrySin * correctionCos));
+  }
+}
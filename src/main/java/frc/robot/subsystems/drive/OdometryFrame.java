@@ -0,0 +1,143 @@
+package frc.robot.subsystems.drive;
+
+import java.util.Arrays;
+import org.littletonrobotics.junction.LogTable;
+import org.littletonrobotics.junction.inputs.LoggableInputs;
+
+/**
+ * A batch of high-frequency odometry frames. Every frame holds one timestamp plus the drive
+ * position and turn angle of each module and the gyro yaw, all taken from the same sample, so the
+ * columns can never drift out of alignment.
+ *
+ * <p>Columns are flat primitive arrays preallocated to a fixed capacity. Module columns are stored
+ * frame-major ({@code frame * MODULE_COUNT + module}), which matches the order {@link
+ * FramePoseEstimator} reads them in.
+ */
+public class OdometryFrame implements LoggableInputs {
+  public static final int MODULE_COUNT = 4;
+
+  /** The column that an odometry signal is sampled into. */
+  public enum Column {
+    DRIVE_POSITION,
+    TURN_POSITION,
+    YAW
+  }
+
+  private final int capacity;
+  private int frameCount = 0;
+  private final double[] timestamps;
+  private final double[] drivePositionsMeters;
+  private final double[] turnPositionsRad;
+  private final double[] yawPositionsRad;
+
+  public OdometryFrame(int capacity) {
+    this.capacity = capacity;
+    timestamps = new double[capacity];
+    drivePositionsMeters = new double[capacity * MODULE_COUNT];
+    turnPositionsRad = new double[capacity * MODULE_COUNT];
+    yawPositionsRad = new double[capacity];
+  }
+
+  /** Removes every frame from the batch. */
+  public void clear() {
+    frameCount = 0;
+  }
+
+  /**
+   * Starts a new frame. Every column of the new frame is zeroed until it is set.
+   *
+   * @return The index of the new frame, or -1 if the batch is full
+   */
+  public int addFrame(double timestamp) {
+    if (frameCount >= capacity) {
+      return -1;
+    }
+    int frame = frameCount++;
+    timestamps[frame] = timestamp;
+    Arrays.fill(drivePositionsMeters, frame * MODULE_COUNT, (frame + 1) * MODULE_COUNT, 0.0);
+    Arrays.fill(turnPositionsRad, frame * MODULE_COUNT, (frame + 1) * MODULE_COUNT, 0.0);
+    yawPositionsRad[frame] = 0.0;
+    return frame;
+  }
+
+  /**
+   * Sets one value of a frame.
+   *
+   * @param frame Index returned by {@link #addFrame(double)}
+   * @param column Column to write
+   * @param module Module index, ignored for {@link Column#YAW}
+   * @param value Meters for drive positions, radians for turn and yaw positions
+   */
+  public void set(int frame, Column column, int module, double value) {
+    switch (column) {
+      case DRIVE_POSITION -> drivePositionsMeters[frame * MODULE_COUNT + module] = value;
+      case TURN_POSITION -> turnPositionsRad[frame * MODULE_COUNT + module] = value;
+      case YAW -> yawPositionsRad[frame] = value;
+    }
+  }
+
+  /** Returns the number of frames in the batch. */
+  public int getFrameCount() {
+    return frameCount;
+  }
+
+  /** Returns the maximum number of frames the batch can hold. */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /** Returns the FPGA timestamp of a frame in seconds. */
+  public double getTimestamp(int frame) {
+    return timestamps[frame];
+  }
+
+  /** Returns the drive position of a module in meters. */
+  public double getDrivePositionMeters(int frame, int module) {
+    return drivePositionsMeters[frame * MODULE_COUNT + module];
+  }
+
+  /** Returns the turn angle of a module in radians. */
+  public double getTurnPositionRad(int frame, int module) {
+    return turnPositionsRad[frame * MODULE_COUNT + module];
+  }
+
+  /** Returns the gyro yaw in radians. */
+  public double getYawPositionRad(int frame) {
+    return yawPositionsRad[frame];
+  }
+
+  @Override
+  public void toLog(LogTable table) {
+    table.put("Timestamps", Arrays.copyOf(timestamps, frameCount));
+    table.put(
+        "DrivePositionsMeters", Arrays.copyOf(drivePositionsMeters, frameCount * MODULE_COUNT));
+    table.put("TurnPositionsRad", Arrays.copyOf(turnPositionsRad, frameCount * MODULE_COUNT));
+    table.put("YawPositionsRad", Arrays.copyOf(yawPositionsRad, frameCount));
+  }
+
+  @Override
+  public void fromLog(LogTable table) {
+    double[] loggedTimestamps = table.get("Timestamps", new double[0]);
+    double[] loggedDrivePositions = table.get("DrivePositionsMeters", new double[0]);
+    double[] loggedTurnPositions = table.get("TurnPositionsRad", new double[0]);
+    double[] loggedYawPositions = table.get("YawPositionsRad", new double[0]);
+
+    clear();
+    int count = Math.min(loggedTimestamps.length, capacity);
+    for (int frame = 0; frame < count; frame++) {
+      addFrame(loggedTimestamps[frame]);
+      if (frame < loggedYawPositions.length) {
+        yawPositionsRad[frame] = loggedYawPositions[frame];
+      }
+      for (int module = 0; module < MODULE_COUNT; module++) {
+        int index = frame * MODULE_COUNT + module;
+        if (index < loggedDrivePositions.length) {
+          drivePositionsMeters[index] = loggedDrivePositions[index];
+        }
+        if (index < loggedTurnPositions.length) {
+          turnPositionsRad[index] = loggedTurnPositions[index];
+        }
+      }
+    }
+  }
+}
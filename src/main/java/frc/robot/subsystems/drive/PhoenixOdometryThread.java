@@ -16,19 +16,25 @@ package frc.robot.subsystems.drive;
 import com.ctre.phoenix6.BaseStatusSignal;
 import com.ctre.phoenix6.CANBus;
 import com.ctre.phoenix6.StatusSignal;
+import edu.wpi.first.math.util.Units;
 import edu.wpi.first.units.measure.Angle;
 import edu.wpi.first.wpilibj.RobotController;
+import frc.robot.Constants.DriveConstants;
 import frc.robot.generated.TunerConstants;
+import frc.robot.subsystems.drive.OdometryFrame.Column;
+import frc.robot.util.DoubleRingBuffer;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Queue;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.DoubleSupplier;
 
 /**
- * Provides an interface for asynchronously reading high-frequency measurements to a set of queues.
+ * Provides an interface for asynchronously reading high-frequency measurements into {@link
+ * OdometryFrame} batches.
+ *
+ * <p>The thread never shares a lock with the main loop. Each sample is written as one frame (the
+ * timestamp followed by every registered signal) into a lock-free primitive ring, and a frame only
+ * becomes visible once it is complete. {@link #poll(OdometryFrame)} converts the published frames
+ * into a batch from the main loop.
  *
  * <p>This version is intended for Phoenix 6 devices on both the RIO and CANivore buses. When using
  * a CANivore, the thread uses the "waitForAll" blocking method to enable more consistent sampling.
@@ -36,13 +42,24 @@ import java.util.function.DoubleSupplier;
  * time synchronization.
  */
 public class PhoenixOdometryThread extends Thread {
-  private final Lock signalsLock =
-      new ReentrantLock(); // Prevents conflicts when registering signals
   private BaseStatusSignal[] phoenixSignals = new BaseStatusSignal[0];
   private final List<DoubleSupplier> genericSignals = new ArrayList<>();
-  private final List<Queue<Double>> phoenixQueues = new ArrayList<>();
-  private final List<Queue<Double>> genericQueues = new ArrayList<>();
-  private final List<Queue<Double>> timestampQueues = new ArrayList<>();
+
+  // Where each signal lands in an OdometryFrame
+  private record SignalLayout(Column column, int module, double scale) {}
+
+  private final List<SignalLayout> phoenixLayouts = new ArrayList<>();
+  private final List<SignalLayout> genericLayouts = new ArrayList<>();
+
+  // Layouts flattened in frame order (Phoenix signals, then generic signals)
+  private Column[] columns;
+  private int[] modules;
+  private double[] scales;
+
+  // Frame handoff, written by the odometry thread and read by the main loop
+  private DoubleRingBuffer frames = null;
+  private double[] sampledFrame;
+  private double[] polledFrames;
 
   private static boolean isCANFD =
       new CANBus(TunerConstants.DrivetrainConstants.CANBusName).isNetworkFD();
@@ -62,61 +79,111 @@ public class PhoenixOdometryThread extends Thread {
 
   @Override
   public void start() {
-    if (timestampQueues.size() > 0) {
+    int signalCount = phoenixSignals.length + genericSignals.size();
+    if (signalCount > 0) {
+      // The set of signals is fixed from here on, so the frame layout can be built once
+      columns = new Column[signalCount];
+      modules = new int[signalCount];
+      scales = new double[signalCount];
+      List<SignalLayout> layouts = new ArrayList<>(phoenixLayouts);
+      layouts.addAll(genericLayouts);
+      for (int i = 0; i < signalCount; i++) {
+        columns[i] = layouts.get(i).column();
+        modules[i] = layouts.get(i).module();
+        scales[i] = layouts.get(i).scale();
+      }
+
+      frames = new DoubleRingBuffer(DriveConstants.ODOMETRY_FRAME_CAPACITY, 1 + signalCount);
+      sampledFrame = new double[1 + signalCount];
+      polledFrames = new double[DriveConstants.ODOMETRY_FRAME_CAPACITY * (1 + signalCount)];
       super.start();
     }
   }
 
-  /** Registers a Phoenix signal to be read from the thread. */
-  public Queue<Double> registerSignal(StatusSignal<Angle> signal) {
-    Queue<Double> queue = new ArrayBlockingQueue<>(20);
-    signalsLock.lock();
-    Drive.odometryLock.lock();
-    try {
-      BaseStatusSignal[] newSignals = new BaseStatusSignal[phoenixSignals.length + 1];
-      System.arraycopy(phoenixSignals, 0, newSignals, 0, phoenixSignals.length);
-      newSignals[phoenixSignals.length] = signal;
-      phoenixSignals = newSignals;
-      phoenixQueues.add(queue);
-    } finally {
-      signalsLock.unlock();
-      Drive.odometryLock.unlock();
+  /** Registers a module drive position (rotations) to be converted to meters. */
+  public void registerDrivePosition(
+      int moduleIndex, StatusSignal<Angle> signal, double wheelRadiusMeters) {
+    registerSignal(signal, Column.DRIVE_POSITION, moduleIndex, 2.0 * Math.PI * wheelRadiusMeters);
+  }
+
+  /** Registers a module turn position (rotations). */
+  public void registerTurnPosition(int moduleIndex, StatusSignal<Angle> signal) {
+    registerSignal(signal, Column.TURN_POSITION, moduleIndex, 2.0 * Math.PI);
+  }
+
+  /** Registers the gyro yaw (degrees, counterclockwise positive). */
+  public void registerYaw(StatusSignal<Angle> signal) {
+    registerSignal(signal, Column.YAW, 0, Units.degreesToRadians(1.0));
+  }
+
+  /** Registers the gyro yaw from a non-Phoenix source (degrees, counterclockwise positive). */
+  public void registerYaw(DoubleSupplier signal) {
+    checkNotStarted();
+    genericSignals.add(signal);
+    genericLayouts.add(new SignalLayout(Column.YAW, 0, Units.degreesToRadians(1.0)));
+  }
+
+  private void registerSignal(StatusSignal<Angle> signal, Column column, int module, double scale) {
+    checkNotStarted();
+    BaseStatusSignal[] newSignals = new BaseStatusSignal[phoenixSignals.length + 1];
+    System.arraycopy(phoenixSignals, 0, newSignals, 0, phoenixSignals.length);
+    newSignals[phoenixSignals.length] = signal;
+    phoenixSignals = newSignals;
+    phoenixLayouts.add(new SignalLayout(column, module, scale));
+  }
+
+  private void checkNotStarted() {
+    if (frames != null) {
+      throw new IllegalStateException(
+          "Odometry signals must be registered before the odometry thread is started");
     }
-    return queue;
   }
 
-  /** Registers a generic signal to be read from the thread. */
-  public Queue<Double> registerSignal(DoubleSupplier signal) {
-    Queue<Double> queue = new ArrayBlockingQueue<>(20);
-    signalsLock.lock();
-    Drive.odometryLock.lock();
-    try {
-      genericSignals.add(signal);
-      genericQueues.add(queue);
-    } finally {
-      signalsLock.unlock();
-      Drive.odometryLock.unlock();
+  /**
+   * Replaces the contents of the batch with every frame published since the last call. Must be
+   * called from the main loop. Leaves the batch empty if the thread was never started.
+   */
+  public void poll(OdometryFrame batch) {
+    batch.clear();
+    if (frames == null) {
+      return;
     }
-    return queue;
+    drain(frames, polledFrames, columns, modules, scales, batch);
   }
 
-  /** Returns a new queue that returns timestamp values for each sample. */
-  public Queue<Double> makeTimestampQueue() {
-    Queue<Double> queue = new ArrayBlockingQueue<>(20);
-    Drive.odometryLock.lock();
-    try {
-      timestampQueues.add(queue);
-    } finally {
-      Drive.odometryLock.unlock();
+  /**
+   * Drains every frame in the ring into the batch, placing and scaling each signal by its layout.
+   * Split out of {@link #poll(OdometryFrame)} so it can be benchmarked without a running thread.
+   *
+   * @param polledFrames Scratch space for at least {@link DriveConstants#ODOMETRY_FRAME_CAPACITY}
+   *     frames
+   */
+  static void drain(
+      DoubleRingBuffer frames,
+      double[] polledFrames,
+      Column[] columns,
+      int[] modules,
+      double[] scales,
+      OdometryFrame batch) {
+    int frameWidth = frames.getRecordWidth();
+    int frameCount = frames.drainTo(polledFrames);
+    for (int i = 0; i < frameCount; i++) {
+      int base = i * frameWidth;
+      int frame = batch.addFrame(polledFrames[base]);
+      if (frame < 0) {
+        break; // Batch is smaller than the ring, keep the oldest frames
+      }
+      for (int signal = 0; signal < columns.length; signal++) {
+        double value = polledFrames[base + 1 + signal] * scales[signal];
+        batch.set(frame, columns[signal], modules[signal], value);
+      }
     }
-    return queue;
   }
 
   @Override
   public void run() {
     while (true) {
       // Wait for updates from all signals
-      signalsLock.lock();
       try {
         if (isCANFD && phoenixSignals.length > 0) {
           BaseStatusSignal.waitForAll(2.0 / Drive.ODOMETRY_FREQUENCY, phoenixSignals);
@@ -129,38 +196,34 @@ public class PhoenixOdometryThread extends Thread {
         }
       } catch (InterruptedException e) {
         e.printStackTrace();
-      } finally {
-        signalsLock.unlock();
       }
 
-      // Save new data to queues
-      Drive.odometryLock.lock();
-      try {
-        // Sample timestamp is current FPGA time minus average CAN latency
-        //     Default timestamps from Phoenix are NOT compatible with
-        //     FPGA timestamps, this solution is imperfect but close
-        double timestamp = RobotController.getFPGATime() / 1e6;
-        double totalLatency = 0.0;
-        for (BaseStatusSignal signal : phoenixSignals) {
-          totalLatency += signal.getTimestamp().getLatency();
-        }
-        if (phoenixSignals.length > 0) {
-          timestamp -= totalLatency / phoenixSignals.length;
-        }
+      // Sample timestamp is current FPGA time minus average CAN latency
+      //     Default timestamps from Phoenix are NOT compatible with
+      //     FPGA timestamps, this solution is imperfect but close
+      double timestamp = RobotController.getFPGATime() / 1e6;
+      double totalLatency = 0.0;
+      for (BaseStatusSignal signal : phoenixSignals) {
+        totalLatency += signal.getTimestamp().getLatency();
+      }
+      if (phoenixSignals.length > 0) {
+        timestamp -= totalLatency / phoenixSignals.length;
+      }
 
-        // Add new samples to queues
-        for (int i = 0; i < phoenixSignals.length; i++) {
-          phoenixQueues.get(i).offer(phoenixSignals[i].getValueAsDouble());
-        }
-        for (int i = 0; i < genericSignals.size(); i++) {
-          genericQueues.get(i).offer(genericSignals.get(i).getAsDouble());
-        }
-        for (int i = 0; i < timestampQueues.size(); i++) {
-          timestampQueues.get(i).offer(timestamp);
-        }
-      } finally {
-        Drive.odometryLock.unlock();
+      // Publish the new frame, it is dropped as a whole if the main loop has fallen behind
+      sampledFrame[0] = timestamp;
+      for (int i = 0; i < phoenixSignals.length; i++) {
+        sampledFrame[1 + i] = phoenixSignals[i].getValueAsDouble();
       }
+      for (int i = 0; i < genericSignals.size(); i++) {
+        sampledFrame[1 + phoenixSignals.length + i] = genericSignals.get(i).getAsDouble();
+      }
+      frames.offer(sampledFrame);
     }
   }
+
+  /** Returns the total number of frames dropped because the main loop fell behind. */
+  public long getDroppedSampleCount() {
+    return frames != null ? frames.getOverflowCount() : 0;
+  }
 }
@@ -4,152 +4,93 @@
 
 package frc.robot.subsystems.intake;
 
-import com.ctre.phoenix6.configs.*;
-import com.ctre.phoenix6.controls.NeutralOut;
-import com.ctre.phoenix6.controls.PositionVoltage;
-import com.ctre.phoenix6.controls.StaticBrake;
-import com.ctre.phoenix6.controls.VelocityTorqueCurrentFOC;
-import com.ctre.phoenix6.controls.VoltageOut;
-import com.ctre.phoenix6.hardware.CANcoder;
-import com.ctre.phoenix6.hardware.CANdi;
-import com.ctre.phoenix6.hardware.TalonFX;
-import com.ctre.phoenix6.signals.*;
+import edu.wpi.first.math.filter.Debouncer;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
-import frc.robot.Constants.IntakeConstants;
-import frc.robot.Constants.OperatorConstants;
+import edu.wpi.first.wpilibj2.command.button.Trigger;
 import frc.robot.Robot;
+import frc.robot.util.LoopProfiler;
+import org.littletonrobotics.junction.Logger;
 
 public class Intake extends SubsystemBase {
-  /** Creates a new Intake. */
-  private final TalonFX intakeLeft =
-      new TalonFX(IntakeConstants.LEFT_INTAKE_MOTOR_ID, OperatorConstants.canivoreSerial);
-
-  private final TalonFX intakeRight =
-      new TalonFX(IntakeConstants.RIGHT_INTAKE_MOTOR_ID, OperatorConstants.canivoreSerial);
-
-  private final TalonFX rotation =
-      new TalonFX(IntakeConstants.INTAKE_ROTATION_MOTOR_ID, OperatorConstants.canivoreSerial);
-  private final CANcoder rotationEncoder =
-      new CANcoder(IntakeConstants.INTAKE_ROTATION_ENCODER_ID, OperatorConstants.canivoreSerial);
-
-  private final CANdi intakeSensors =
-      new CANdi(IntakeConstants.CANDI_ID, OperatorConstants.canivoreSerial);
-
-  public static final TalonFXConfiguration intakeRotationConfig =
-      new TalonFXConfiguration()
-          .withMotorOutput(new MotorOutputConfigs().withInverted(InvertedValue.Clockwise_Positive))
-          .withCurrentLimits(
-              new CurrentLimitsConfigs()
-                  .withStatorCurrentLimitEnable(true)
-                  .withStatorCurrentLimit(70))
-          .withFeedback(
-              new FeedbackConfigs()
-                  .withFeedbackRemoteSensorID(IntakeConstants.INTAKE_ROTATION_ENCODER_ID)
-                  .withFeedbackSensorSource(FeedbackSensorSourceValue.RemoteCANcoder)
-                  .withSensorToMechanismRatio(IntakeConstants.rotatorGearRatio)
-                  .withRotorToSensorRatio(120))
-          .withSoftwareLimitSwitch(
-              new SoftwareLimitSwitchConfigs()
-                  .withForwardSoftLimitEnable(false)
-                  .withForwardSoftLimitThreshold(IntakeConstants.forwardSoftLimit)
-                  .withReverseSoftLimitEnable(false)
-                  .withReverseSoftLimitThreshold(IntakeConstants.reverseSoftLimit))
-          .withMotionMagic(
-              new MotionMagicConfigs()
-                  .withMotionMagicAcceleration(4)
-                  .withMotionMagicCruiseVelocity(2))
-          .withSlot0(
-              new Slot0Configs()
-                  .withKP(45)
-                  .withKD(0)
-                  .withKG(0.2)
-                  .withGravityType(GravityTypeValue.Arm_Cosine));
-
-  public static final CANcoderConfiguration intakeRotationSensorConfig =
-      new CANcoderConfiguration()
-          .withMagnetSensor(
-              new MagnetSensorConfigs()
-                  .withMagnetOffset(-0.907070703125)
-                  .withSensorDirection(SensorDirectionValue.Clockwise_Positive));
-
-  public boolean up = false;
+  // How long the pivot has to stay at its goal before it counts as settled
+  private static final double PIVOT_SETTLE_TIME_SECS = 0.04;
 
-  private static final CANdiConfiguration intakeSensorsConfig =
-      new CANdiConfiguration()
-          .withDigitalInputs(
-              new DigitalInputsConfigs()
-                  .withS1CloseState(S1CloseStateValue.CloseWhenNotFloating)
-                  .withS1FloatState(S1FloatStateValue.FloatDetect)
-                  .withS2CloseState(S2CloseStateValue.CloseWhenNotFloating)
-                  .withS2FloatState(S2FloatStateValue.FloatDetect));
+  private final IntakeIO io;
+  private final IntakeIOInputsAutoLogged inputs = new IntakeIOInputsAutoLogged();
+  private final LoopProfiler.Section periodicTiming = LoopProfiler.section("Subsystems/Intake");
 
-  private static final TalonFXConfiguration intakeConfig =
-      new TalonFXConfiguration()
-          .withCurrentLimits(
-              new CurrentLimitsConfigs()
-                  .withStatorCurrentLimitEnable(true)
-                  .withStatorCurrentLimit(60))
-          .withSlot0(new Slot0Configs().withKS(5.4).withKP(3));
-
-  private static final NeutralOut motorStop = new NeutralOut();
-  private static final VelocityTorqueCurrentFOC intakeSpin =
-      new VelocityTorqueCurrentFOC(0).withAcceleration(IntakeConstants.intakeAcceleration);
-
-  public Intake() {
-    rotation.setNeutralMode(NeutralModeValue.Brake);
-    intakeLeft.setNeutralMode(NeutralModeValue.Coast);
-    intakeRight.setNeutralMode(NeutralModeValue.Coast);
+  public boolean up = false;
 
-    intakeLeft.getConfigurator().apply(intakeConfig);
-    intakeRight.getConfigurator().apply(intakeConfig);
+  // Updated in periodic, so waiting commands just read a flag. Each goal brings its own tolerance.
+  private final Debouncer pivotSettledDebouncer =
+      new Debouncer(PIVOT_SETTLE_TIME_SECS, Debouncer.DebounceType.kRising);
+  private double pivotGoal = Double.NaN; // Never at goal until one is set
+  private double pivotToleranceRot = 0.0;
+  private double pivotSettledVelocity = Double.POSITIVE_INFINITY;
+  private boolean pivotAtGoal = false;
+  private final Trigger pivotAtGoalTrigger = new Trigger(() -> pivotAtGoal);
 
-    rotation.getConfigurator().apply(intakeRotationConfig);
-    rotationEncoder.getConfigurator().apply(intakeRotationSensorConfig);
-    intakeSensors.getConfigurator().apply(intakeSensorsConfig);
+  /** Creates a new Intake. */
+  public Intake(IntakeIO io) {
+    this.io = io;
   }
 
   public void setIntakeHoldingVoltage(double voltage) {
-    intakeLeft.setControl(new VoltageOut(voltage));
-    intakeRight.setControl(new VoltageOut(-voltage));
+    io.setRollerVoltage(voltage);
   }
 
   public double getRotationAngle() {
-    return rotation.getPosition().getValueAsDouble();
+    return inputs.pivotPositionRot;
   }
 
   public boolean getIntakeIsStalled() {
-    boolean returnCondition =
-        intakeRight.getStatorCurrent().getValueAsDouble() > 40
-            && intakeRight.getVelocity().getValueAsDouble() < 1;
-    if (returnCondition) System.out.println("Motor Is Stalled!!!");
-    return returnCondition;
+    return inputs.rollerCurrentAmps > 40 && inputs.rollerVelocityRotPerSec < 1;
   }
 
   public double getClosedLoopError() {
-    return rotation.getClosedLoopError().getValueAsDouble();
+    return inputs.pivotErrorRot;
   }
 
   public double getRotationSetpoint() {
-    double rotationReference = rotation.getClosedLoopReference().getValueAsDouble();
-    return rotationReference;
+    return inputs.pivotSetpointRot;
   }
 
   public double getRotationVelocity() {
-    return rotation.getVelocity().getValueAsDouble();
+    return inputs.pivotVelocityRotPerSec;
+  }
+
+  /** Moves the pivot, counting it at the goal once it is within the tolerance. */
+  public void setAngle(double angle, double toleranceRot) {
+    setAngle(angle, toleranceRot, Double.POSITIVE_INFINITY);
+  }
+
+  /**
+   * Moves the pivot, counting it at the goal once it is within the tolerance and slower than the
+   * settled velocity.
+   */
+  public void setAngle(double angle, double toleranceRot, double settledVelocity) {
+    pivotGoal = angle;
+    pivotToleranceRot = toleranceRot;
+    pivotSettledVelocity = settledVelocity;
+    pivotAtGoal = pivotSettledDebouncer.calculate(false);
+    io.setPivotPosition(angle);
   }
 
-  public void setAngle(double angle) {
-    rotation.setControl(new PositionVoltage(angle));
+  /**
+   * Returns a trigger that is true once the pivot has stayed at its last goal for {@link
+   * #PIVOT_SETTLE_TIME_SECS}, as of the last loop.
+   */
+  public Trigger pivotAtGoal() {
+    return pivotAtGoalTrigger;
   }
 
   public void setIntakeSpeed(double velocity) {
-    intakeLeft.setControl(intakeSpin.withVelocity(velocity));
-    intakeRight.setControl(intakeSpin.withVelocity(-velocity));
+    io.setRollerVelocity(velocity);
   }
 
   public void setStaticBrake() {
-    rotation.setControl(new StaticBrake());
+    io.setPivotBrake();
   }
 
   public void flipL1Toggle() {
@@ -157,23 +98,29 @@ public class Intake extends SubsystemBase {
   }
 
   public void addInstruments() {
-    // Add a single device to the orchestra
-    Robot.robotContainer.m_orchestra.addInstrument(rotation);
-    Robot.robotContainer.m_orchestra.addInstrument(intakeLeft);
-    Robot.robotContainer.m_orchestra.addInstrument(intakeRight);
+    io.addInstruments(Robot.robotContainer.m_orchestra);
   }
 
   public void stopIntake() {
-    intakeLeft.setControl(motorStop);
-    intakeRight.setControl(motorStop);
+    io.stopRollers();
   }
 
   @Override
   public void periodic() {
+    periodicTiming.start();
+    io.updateInputs(inputs);
+    Logger.processInputs("Intake", inputs);
+    pivotAtGoal =
+        pivotSettledDebouncer.calculate(
+            Math.abs(inputs.pivotPositionRot - pivotGoal) < pivotToleranceRot
+                && Math.abs(inputs.pivotVelocityRotPerSec) < pivotSettledVelocity);
+    Logger.recordOutput("Intake/PivotAtGoal", pivotAtGoal);
+    Logger.recordOutput("Intake/RollerStalled", getIntakeIsStalled());
     SmartDashboard.putNumber("Intake Rotation Angle", getRotationAngle());
+    periodicTiming.stop();
   }
 
   public boolean isCoralIntaken() {
-    return intakeSensors.getS2Closed().getValue() || intakeSensors.getS1Closed().getValue();
+    return inputs.coralSensor2Closed || inputs.coralSensor1Closed;
   }
 }
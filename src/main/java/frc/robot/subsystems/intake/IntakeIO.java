@@ -0,0 +1,47 @@
+package frc.robot.subsystems.intake;
+
+import com.ctre.phoenix6.Orchestra;
+import org.littletonrobotics.junction.AutoLog;
+
+public interface IntakeIO {
+  @AutoLog
+  public static class IntakeIOInputs {
+    // Pivot is in mechanism rotations
+    public boolean pivotConnected = false;
+    public double pivotPositionRot = 0.0;
+    public double pivotVelocityRotPerSec = 0.0;
+    public double pivotSetpointRot = 0.0;
+    public double pivotErrorRot = 0.0;
+    public double pivotAppliedVolts = 0.0;
+    public double pivotCurrentAmps = 0.0;
+
+    // Measured on the right roller, which spins backwards while intaking
+    public boolean rollersConnected = false;
+    public double rollerVelocityRotPerSec = 0.0;
+    public double rollerCurrentAmps = 0.0;
+
+    public boolean coralSensor1Closed = false;
+    public boolean coralSensor2Closed = false;
+  }
+
+  /** Updates the set of loggable inputs. */
+  public default void updateInputs(IntakeIOInputs inputs) {}
+
+  /** Run the pivot to the specified position in rotations. */
+  public default void setPivotPosition(double position) {}
+
+  /** Hold the pivot where it is with the motor shorted. */
+  public default void setPivotBrake() {}
+
+  /** Run the rollers at the specified velocity, positive intakes. */
+  public default void setRollerVelocity(double velocityRotPerSec) {}
+
+  /** Run the rollers at the specified voltage, positive intakes. */
+  public default void setRollerVoltage(double volts) {}
+
+  /** Let the rollers coast. */
+  public default void stopRollers() {}
+
+  /** Adds the motors to the orchestra, if there are real ones. */
+  public default void addInstruments(Orchestra orchestra) {}
+}
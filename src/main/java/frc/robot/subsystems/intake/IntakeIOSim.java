@@ -0,0 +1,168 @@
+package frc.robot.subsystems.intake;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.system.plant.LinearSystemId;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.simulation.DCMotorSim;
+import edu.wpi.first.wpilibj.simulation.SingleJointedArmSim;
+import frc.robot.Constants.IntakeConstants;
+
+/**
+ * Physics sim implementation of intake IO. The pivot is a single jointed arm under gravity and the
+ * rollers are one flywheel, both run with gains like the real motors. Pivot moves follow a
+ * trapezoid profile with the Talon's Motion Magic limits. Simulation is always based on voltage
+ * control.
+ *
+ * <p>There is nothing to pick up, so the coral sensor is scripted: a coral arrives once the intake
+ * is down and the rollers have been intaking for {@link #CORAL_ARRIVAL_SECS}, and it leaves once
+ * they have been rejecting for {@link #CORAL_EJECT_SECS}.
+ */
+public class IntakeIOSim implements IntakeIO {
+  // Estimates of the real mechanism, which isn't described anywhere else
+  private static final double PIVOT_LENGTH_METERS = 0.35;
+  private static final double PIVOT_MASS_KG = 3.0;
+  private static final double PIVOT_GEAR_RATIO = 120 * IntakeConstants.rotatorGearRatio;
+  private static final double ROLLER_MOI = 0.001;
+
+  // Pivot gains match the Talon's slot 0, in volts per mechanism rotation
+  private static final double PIVOT_KP = 45.0;
+  private static final double PIVOT_KG = 0.2;
+  private static final TrapezoidProfile PIVOT_PROFILE =
+      new TrapezoidProfile(new TrapezoidProfile.Constraints(2.0, 4.0));
+  private static final double ROLLER_KP = 0.1;
+  private static final DCMotor PIVOT_GEARBOX = DCMotor.getKrakenX60(1);
+  private static final DCMotor ROLLER_GEARBOX = DCMotor.getKrakenX60Foc(1);
+  private static final double ROLLER_KV =
+      1.0 / Units.radiansToRotations(ROLLER_GEARBOX.KvRadPerSecPerVolt); // Volts per rot/s
+
+  private static final double CORAL_ARRIVAL_SECS = 0.5;
+  private static final double CORAL_EJECT_SECS = 0.2;
+  private static final double ROLLER_MOVING_ROT_PER_SEC = 10.0;
+  private static final double PIVOT_DOWN_TOLERANCE_ROT = 0.05;
+
+  private final SingleJointedArmSim pivotSim =
+      new SingleJointedArmSim(
+          PIVOT_GEARBOX,
+          PIVOT_GEAR_RATIO,
+          SingleJointedArmSim.estimateMOI(PIVOT_LENGTH_METERS, PIVOT_MASS_KG),
+          PIVOT_LENGTH_METERS,
+          Units.rotationsToRadians(-0.05),
+          Units.rotationsToRadians(0.6),
+          true,
+          Units.rotationsToRadians(IntakeConstants.intakeDownAngle));
+  private final DCMotorSim rollerSim =
+      new DCMotorSim(
+          LinearSystemId.createDCMotorSystem(ROLLER_GEARBOX, ROLLER_MOI, 1.0), ROLLER_GEARBOX);
+
+  private final PIDController pivotController = new PIDController(PIVOT_KP, 0, 0);
+  private final PIDController rollerController = new PIDController(ROLLER_KP, 0, 0);
+  private boolean pivotClosedLoop = false;
+  private TrapezoidProfile.State pivotReference = new TrapezoidProfile.State();
+  private final TrapezoidProfile.State pivotGoal = new TrapezoidProfile.State();
+  private boolean rollerClosedLoop = false;
+  private double pivotAppliedVolts = 0.0;
+  private double rollerFFVolts = 0.0;
+  private double rollerAppliedVolts = 0.0;
+
+  private boolean hasCoral = false;
+  private double intakingSecs = 0.0;
+  private double rejectingSecs = 0.0;
+
+  @Override
+  public void updateInputs(IntakeIOInputs inputs) {
+    double pivotPosition = Units.radiansToRotations(pivotSim.getAngleRads());
+    // The right roller is simulated, which spins backwards while intaking
+    double rollerVelocity = Units.radiansToRotations(rollerSim.getAngularVelocityRadPerSec());
+
+    // Run closed-loop control
+    if (pivotClosedLoop) {
+      pivotReference = PIVOT_PROFILE.calculate(0.02, pivotReference, pivotGoal);
+      pivotAppliedVolts =
+          pivotController.calculate(pivotPosition, pivotReference.position)
+              + PIVOT_KG * Math.cos(Units.rotationsToRadians(pivotPosition));
+    } else {
+      pivotController.reset();
+    }
+    if (rollerClosedLoop) {
+      rollerAppliedVolts = rollerFFVolts + rollerController.calculate(rollerVelocity);
+    } else {
+      rollerController.reset();
+    }
+
+    // Update simulation state
+    pivotAppliedVolts = MathUtil.clamp(pivotAppliedVolts, -12.0, 12.0);
+    rollerAppliedVolts = MathUtil.clamp(rollerAppliedVolts, -12.0, 12.0);
+    pivotSim.setInputVoltage(pivotAppliedVolts);
+    rollerSim.setInputVoltage(rollerAppliedVolts);
+    pivotSim.update(0.02);
+    rollerSim.update(0.02);
+    updateCoral(pivotPosition, rollerVelocity);
+
+    inputs.pivotConnected = true;
+    inputs.pivotPositionRot = Units.radiansToRotations(pivotSim.getAngleRads());
+    inputs.pivotVelocityRotPerSec = Units.radiansToRotations(pivotSim.getVelocityRadPerSec());
+    inputs.pivotSetpointRot = pivotReference.position;
+    inputs.pivotErrorRot = pivotReference.position - inputs.pivotPositionRot;
+    inputs.pivotAppliedVolts = pivotAppliedVolts;
+    inputs.pivotCurrentAmps = Math.abs(pivotSim.getCurrentDrawAmps());
+
+    inputs.rollersConnected = true;
+    inputs.rollerVelocityRotPerSec =
+        Units.radiansToRotations(rollerSim.getAngularVelocityRadPerSec());
+    inputs.rollerCurrentAmps = Math.abs(rollerSim.getCurrentDrawAmps());
+
+    // The real robot only wires the base switch to S2
+    inputs.coralSensor1Closed = false;
+    inputs.coralSensor2Closed = hasCoral;
+  }
+
+  private void updateCoral(double pivotPosition, double rollerVelocity) {
+    boolean down =
+        Math.abs(pivotPosition - IntakeConstants.intakeDownAngle) < PIVOT_DOWN_TOLERANCE_ROT;
+    intakingSecs = down && rollerVelocity < -ROLLER_MOVING_ROT_PER_SEC ? intakingSecs + 0.02 : 0.0;
+    rejectingSecs = rollerVelocity > ROLLER_MOVING_ROT_PER_SEC ? rejectingSecs + 0.02 : 0.0;
+    if (!hasCoral && intakingSecs >= CORAL_ARRIVAL_SECS) {
+      hasCoral = true;
+    } else if (hasCoral && rejectingSecs >= CORAL_EJECT_SECS) {
+      hasCoral = false;
+    }
+  }
+
+  @Override
+  public void setPivotPosition(double position) {
+    if (!pivotClosedLoop) {
+      pivotReference =
+          new TrapezoidProfile.State(Units.radiansToRotations(pivotSim.getAngleRads()), 0.0);
+    }
+    pivotClosedLoop = true;
+    pivotGoal.position = position;
+  }
+
+  @Override
+  public void setPivotBrake() {
+    pivotClosedLoop = false;
+    pivotAppliedVolts = 0.0;
+  }
+
+  @Override
+  public void setRollerVelocity(double velocityRotPerSec) {
+    rollerClosedLoop = true;
+    rollerFFVolts = -velocityRotPerSec * ROLLER_KV;
+    rollerController.setSetpoint(-velocityRotPerSec);
+  }
+
+  @Override
+  public void setRollerVoltage(double volts) {
+    rollerClosedLoop = false;
+    rollerAppliedVolts = -volts;
+  }
+
+  @Override
+  public void stopRollers() {
+    rollerClosedLoop = false;
+    rollerAppliedVolts = 0.0;
+  }
+}
@@ -0,0 +1,205 @@
+package frc.robot.subsystems.intake;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.Orchestra;
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.configs.*;
+import com.ctre.phoenix6.controls.MotionMagicVoltage;
+import com.ctre.phoenix6.controls.NeutralOut;
+import com.ctre.phoenix6.controls.StaticBrake;
+import com.ctre.phoenix6.controls.VelocityTorqueCurrentFOC;
+import com.ctre.phoenix6.controls.VoltageOut;
+import com.ctre.phoenix6.hardware.CANcoder;
+import com.ctre.phoenix6.hardware.CANdi;
+import com.ctre.phoenix6.hardware.TalonFX;
+import com.ctre.phoenix6.signals.*;
+import edu.wpi.first.math.filter.Debouncer;
+import edu.wpi.first.units.measure.Angle;
+import edu.wpi.first.units.measure.AngularVelocity;
+import edu.wpi.first.units.measure.Current;
+import edu.wpi.first.units.measure.Voltage;
+import frc.robot.Constants.IntakeConstants;
+import frc.robot.Constants.OperatorConstants;
+import frc.robot.util.StatusSignalRegistry;
+
+/**
+ * Intake IO implementation for the Talon FX pivot on a remote CANcoder, the two Talon FX rollers,
+ * and the coral beam sensors on a CANdi. Every signal is refreshed in the batched {@link
+ * StatusSignalRegistry} call at the start of the cycle.
+ */
+public class IntakeIOTalonFX implements IntakeIO {
+  private final TalonFX intakeLeft =
+      new TalonFX(IntakeConstants.LEFT_INTAKE_MOTOR_ID, OperatorConstants.canivoreSerial);
+
+  private final TalonFX intakeRight =
+      new TalonFX(IntakeConstants.RIGHT_INTAKE_MOTOR_ID, OperatorConstants.canivoreSerial);
+
+  private final TalonFX rotation =
+      new TalonFX(IntakeConstants.INTAKE_ROTATION_MOTOR_ID, OperatorConstants.canivoreSerial);
+  private final CANcoder rotationEncoder =
+      new CANcoder(IntakeConstants.INTAKE_ROTATION_ENCODER_ID, OperatorConstants.canivoreSerial);
+
+  private final CANdi intakeSensors =
+      new CANdi(IntakeConstants.CANDI_ID, OperatorConstants.canivoreSerial);
+
+  private static final TalonFXConfiguration intakeRotationConfig =
+      new TalonFXConfiguration()
+          .withMotorOutput(new MotorOutputConfigs().withInverted(InvertedValue.Clockwise_Positive))
+          .withCurrentLimits(
+              new CurrentLimitsConfigs()
+                  .withStatorCurrentLimitEnable(true)
+                  .withStatorCurrentLimit(70))
+          .withFeedback(
+              new FeedbackConfigs()
+                  .withFeedbackRemoteSensorID(IntakeConstants.INTAKE_ROTATION_ENCODER_ID)
+                  .withFeedbackSensorSource(FeedbackSensorSourceValue.RemoteCANcoder)
+                  .withSensorToMechanismRatio(IntakeConstants.rotatorGearRatio)
+                  .withRotorToSensorRatio(120))
+          .withSoftwareLimitSwitch(
+              new SoftwareLimitSwitchConfigs()
+                  .withForwardSoftLimitEnable(false)
+                  .withForwardSoftLimitThreshold(IntakeConstants.forwardSoftLimit)
+                  .withReverseSoftLimitEnable(false)
+                  .withReverseSoftLimitThreshold(IntakeConstants.reverseSoftLimit))
+          .withMotionMagic(
+              new MotionMagicConfigs()
+                  .withMotionMagicAcceleration(4)
+                  .withMotionMagicCruiseVelocity(2))
+          .withSlot0(
+              new Slot0Configs()
+                  .withKP(45)
+                  .withKD(0)
+                  .withKG(0.2)
+                  .withGravityType(GravityTypeValue.Arm_Cosine));
+
+  private static final CANcoderConfiguration intakeRotationSensorConfig =
+      new CANcoderConfiguration()
+          .withMagnetSensor(
+              new MagnetSensorConfigs()
+                  .withMagnetOffset(-0.907070703125)
+                  .withSensorDirection(SensorDirectionValue.Clockwise_Positive));
+
+  private static final CANdiConfiguration intakeSensorsConfig =
+      new CANdiConfiguration()
+          .withDigitalInputs(
+              new DigitalInputsConfigs()
+                  .withS1CloseState(S1CloseStateValue.CloseWhenNotFloating)
+                  .withS1FloatState(S1FloatStateValue.FloatDetect)
+                  .withS2CloseState(S2CloseStateValue.CloseWhenNotFloating)
+                  .withS2FloatState(S2FloatStateValue.FloatDetect));
+
+  private static final TalonFXConfiguration intakeConfig =
+      new TalonFXConfiguration()
+          .withCurrentLimits(
+              new CurrentLimitsConfigs()
+                  .withStatorCurrentLimitEnable(true)
+                  .withStatorCurrentLimit(60))
+          .withSlot0(new Slot0Configs().withKS(5.4).withKP(3));
+
+  private static final NeutralOut motorStop = new NeutralOut();
+  private static final VelocityTorqueCurrentFOC intakeSpin =
+      new VelocityTorqueCurrentFOC(0).withAcceleration(IntakeConstants.intakeAcceleration);
+
+  // Reused for every move, the pivot runs its Motion Magic profile itself
+  private final MotionMagicVoltage pivotRequest = new MotionMagicVoltage(0.0);
+  private final StaticBrake brakeRequest = new StaticBrake();
+  private final VoltageOut rollerVoltageRequest = new VoltageOut(0.0);
+
+  // Refreshed once per cycle by StatusSignalRegistry
+  private final StatusSignal<Angle> rotationPosition = rotation.getPosition(false);
+  private final StatusSignal<AngularVelocity> rotationVelocity = rotation.getVelocity(false);
+  private final StatusSignal<Double> rotationReference = rotation.getClosedLoopReference(false);
+  private final StatusSignal<Double> rotationError = rotation.getClosedLoopError(false);
+  private final StatusSignal<Voltage> rotationAppliedVolts = rotation.getMotorVoltage(false);
+  private final StatusSignal<Current> rotationCurrent = rotation.getStatorCurrent(false);
+  private final StatusSignal<Current> rollerCurrent = intakeRight.getStatorCurrent(false);
+  private final StatusSignal<AngularVelocity> rollerVelocity = intakeRight.getVelocity(false);
+  private final StatusSignal<Boolean> coralSensorS1 = intakeSensors.getS1Closed(false);
+  private final StatusSignal<Boolean> coralSensorS2 = intakeSensors.getS2Closed(false);
+
+  private final BaseStatusSignal[] pivotSignals = {
+    rotationPosition,
+    rotationVelocity,
+    rotationReference,
+    rotationError,
+    rotationAppliedVolts,
+    rotationCurrent
+  };
+  private final BaseStatusSignal[] rollerSignals = {rollerCurrent, rollerVelocity};
+  private final BaseStatusSignal[] sensorSignals = {coralSensorS1, coralSensorS2};
+
+  private final Debouncer pivotConnectedDebounce = new Debouncer(0.5);
+  private final Debouncer rollersConnectedDebounce = new Debouncer(0.5);
+
+  public IntakeIOTalonFX() {
+    rotation.setNeutralMode(NeutralModeValue.Brake);
+    intakeLeft.setNeutralMode(NeutralModeValue.Coast);
+    intakeRight.setNeutralMode(NeutralModeValue.Coast);
+
+    intakeLeft.getConfigurator().apply(intakeConfig);
+    intakeRight.getConfigurator().apply(intakeConfig);
+
+    rotation.getConfigurator().apply(intakeRotationConfig);
+    rotationEncoder.getConfigurator().apply(intakeRotationSensorConfig);
+    intakeSensors.getConfigurator().apply(intakeSensorsConfig);
+    StatusSignalRegistry.register(OperatorConstants.canivoreSerial, pivotSignals);
+    StatusSignalRegistry.register(OperatorConstants.canivoreSerial, rollerSignals);
+    StatusSignalRegistry.register(OperatorConstants.canivoreSerial, sensorSignals);
+  }
+
+  @Override
+  public void updateInputs(IntakeIOInputs inputs) {
+    // Signals were already refreshed this cycle by StatusSignalRegistry
+    inputs.pivotConnected =
+        pivotConnectedDebounce.calculate(BaseStatusSignal.isAllGood(pivotSignals));
+    inputs.pivotPositionRot = rotationPosition.getValueAsDouble();
+    inputs.pivotVelocityRotPerSec = rotationVelocity.getValueAsDouble();
+    inputs.pivotSetpointRot = rotationReference.getValueAsDouble();
+    inputs.pivotErrorRot = rotationError.getValueAsDouble();
+    inputs.pivotAppliedVolts = rotationAppliedVolts.getValueAsDouble();
+    inputs.pivotCurrentAmps = rotationCurrent.getValueAsDouble();
+
+    inputs.rollersConnected =
+        rollersConnectedDebounce.calculate(BaseStatusSignal.isAllGood(rollerSignals));
+    inputs.rollerVelocityRotPerSec = rollerVelocity.getValueAsDouble();
+    inputs.rollerCurrentAmps = rollerCurrent.getValueAsDouble();
+
+    inputs.coralSensor1Closed = coralSensorS1.getValue();
+    inputs.coralSensor2Closed = coralSensorS2.getValue();
+  }
+
+  @Override
+  public void setPivotPosition(double position) {
+    rotation.setControl(pivotRequest.withPosition(position));
+  }
+
+  @Override
+  public void setPivotBrake() {
+    rotation.setControl(brakeRequest);
+  }
+
+  @Override
+  public void setRollerVelocity(double velocityRotPerSec) {
+    intakeLeft.setControl(intakeSpin.withVelocity(velocityRotPerSec));
+    intakeRight.setControl(intakeSpin.withVelocity(-velocityRotPerSec));
+  }
+
+  @Override
+  public void setRollerVoltage(double volts) {
+    intakeLeft.setControl(rollerVoltageRequest.withOutput(volts));
+    intakeRight.setControl(rollerVoltageRequest.withOutput(-volts));
+  }
+
+  @Override
+  public void stopRollers() {
+    intakeLeft.setControl(motorStop);
+    intakeRight.setControl(motorStop);
+  }
+
+  @Override
+  public void addInstruments(Orchestra orchestra) {
+    orchestra.addInstrument(rotation);
+    orchestra.addInstrument(intakeLeft);
+    orchestra.addInstrument(intakeRight);
+  }
+}
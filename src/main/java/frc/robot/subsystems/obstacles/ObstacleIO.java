@@ -0,0 +1,16 @@
+package frc.robot.subsystems.obstacles;
+
+import org.littletonrobotics.junction.AutoLog;
+
+/** A source of obstacle sightings, such as a detector camera or positions shared over NT. */
+public interface ObstacleIO {
+  @AutoLog
+  public static class ObstacleIOInputs {
+    // Obstacle centers seen this cycle as x then y for each, in meters. A source fills whichever
+    // frame it measures in.
+    public double[] robotRelativeCenters = new double[0];
+    public double[] fieldCenters = new double[0];
+  }
+
+  public default void updateInputs(ObstacleIOInputs inputs) {}
+}
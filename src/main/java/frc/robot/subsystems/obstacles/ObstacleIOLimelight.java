@@ -0,0 +1,74 @@
+package frc.robot.subsystems.obstacles;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.util.Units;
+import frc.robot.util.limelight.LimelightHelpers;
+import frc.robot.util.limelight.LimelightHelpers.RawDetection;
+import frc.robot.util.limelight.LimelightPipeline;
+import frc.robot.util.limelight.Limelights;
+import java.util.Arrays;
+
+/**
+ * Robots seen by a Limelight running the {@link LimelightPipeline#ROBOT_DETECTOR} pipeline. Each
+ * detection is ranged from its vertical angle below the camera, assuming it sits on the carpet, so
+ * only the camera mount needs to be known.
+ */
+public class ObstacleIOLimelight implements ObstacleIO {
+  // Rear camera mount, relative to the robot center on the floor
+  private static final double CAMERA_HEIGHT_METERS = 0.45;
+  private static final double CAMERA_PITCH_DEG = -15.0; // Negative is down
+  private static final Rotation2d CAMERA_YAW = Rotation2d.fromDegrees(180.0);
+  private static final Translation2d CAMERA_POSITION = new Translation2d(-0.3, 0.0);
+
+  // Detector class of other robots, and the height the model centers them at (their bumpers)
+  private static final int ROBOT_CLASS_ID = 0;
+  private static final double TARGET_HEIGHT_METERS = 0.12;
+
+  // Detections near or above the horizon can't be ranged, and far ones are too uncertain to use
+  private static final double MIN_DEPRESSION_DEG = 1.0;
+  private static final double MAX_RANGE_METERS = 5.0;
+
+  private final Limelights camera;
+
+  public ObstacleIOLimelight(Limelights camera) {
+    this.camera = camera;
+  }
+
+  @Override
+  public void updateInputs(ObstacleIOInputs inputs) {
+    // The camera only runs the detector while pathfinding, and localizes the rest of the time
+    if (LimelightHelpers.getCurrentPipelineIndex(camera.name)
+        != LimelightPipeline.ROBOT_DETECTOR.pipeline) {
+      inputs.robotRelativeCenters = new double[0];
+      return;
+    }
+    RawDetection[] detections = LimelightHelpers.getRawDetections(camera.name);
+    double[] centers = new double[detections.length * 2];
+    int count = 0;
+    for (RawDetection detection : detections) {
+      if (detection.classId != ROBOT_CLASS_ID) {
+        continue;
+      }
+      double depressionDeg = -(CAMERA_PITCH_DEG + detection.tync);
+      if (depressionDeg < MIN_DEPRESSION_DEG) {
+        continue;
+      }
+      double range =
+          (CAMERA_HEIGHT_METERS - TARGET_HEIGHT_METERS)
+              / Math.tan(Units.degreesToRadians(depressionDeg));
+      if (range > MAX_RANGE_METERS) {
+        continue;
+      }
+
+      // Limelight angles are positive to the right, robot y is positive to the left
+      Translation2d center =
+          new Translation2d(range, -range * Math.tan(Units.degreesToRadians(detection.txnc)))
+              .rotateBy(CAMERA_YAW)
+              .plus(CAMERA_POSITION);
+      centers[count++] = center.getX();
+      centers[count++] = center.getY();
+    }
+    inputs.robotRelativeCenters = count == centers.length ? centers : Arrays.copyOf(centers, count);
+  }
+}
@@ -0,0 +1,24 @@
+package frc.robot.subsystems.obstacles;
+
+import edu.wpi.first.networktables.DoubleArraySubscriber;
+import edu.wpi.first.networktables.NetworkTableInstance;
+
+/**
+ * Obstacle positions published to "Obstacles/Manual" as field x then y for each, in meters. Stands
+ * in for positions shared by alliance partners, and lets obstacles be placed by hand for testing.
+ * The positions count as seen every cycle they stay published.
+ */
+public class ObstacleIONetworkTables implements ObstacleIO {
+  private final DoubleArraySubscriber centers =
+      NetworkTableInstance.getDefault()
+          .getTable("Obstacles")
+          .getDoubleArrayTopic("Manual")
+          .subscribe(new double[0]);
+
+  @Override
+  public void updateInputs(ObstacleIOInputs inputs) {
+    double[] published = centers.get();
+    // An odd length is a malformed entry
+    inputs.fieldCenters = published.length % 2 == 0 ? published : new double[0];
+  }
+}
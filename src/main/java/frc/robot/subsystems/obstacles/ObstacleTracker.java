@@ -0,0 +1,157 @@
+package frc.robot.subsystems.obstacles;
+
+import com.pathplanner.lib.pathfinding.Pathfinding;
+import edu.wpi.first.math.Pair;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.util.LoopProfiler;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Keeps short-lived obstacles, such as other robots, from a set of {@link ObstacleIO} sources and
+ * feeds them to the pathfinder as boxes. A sighting close to a tracked obstacle moves it, anything
+ * else starts a new one, and obstacles that go unseen for {@link #DECAY_SECS} are dropped.
+ *
+ * <p>Every change makes the planner replan, so the obstacles are sent at most once every {@link
+ * #PUBLISH_PERIOD_SECS}, and only when one has appeared, disappeared or moved noticeably. Sightings
+ * are logged as inputs, so tracking runs the same way in log replay.
+ */
+public class ObstacleTracker extends SubsystemBase {
+  private static final double DECAY_SECS = 1.5;
+  private static final double PUBLISH_PERIOD_SECS = 0.5;
+
+  // A robot with bumpers, plus some clearance
+  private static final double OBSTACLE_HALF_SIZE_METERS = 0.55;
+  private static final double MATCH_DISTANCE_METERS = 0.75;
+  private static final double MOVE_THRESHOLD_METERS = 0.25;
+
+  private final ObstacleIO[] sources;
+  private final ObstacleIOInputsAutoLogged[] inputs;
+  private final String[] inputKeys;
+  private final Supplier<Pose2d> poseSupplier;
+  private final LoopProfiler.Section periodicTiming = LoopProfiler.section("Subsystems/Obstacles");
+
+  private final List<Obstacle> obstacles = new ArrayList<>();
+  private boolean changedSincePublish = false;
+  private double lastPublishTime = Double.NEGATIVE_INFINITY;
+
+  private static class Obstacle {
+    private Translation2d center;
+    private Translation2d publishedCenter = null; // Null until sent to the planner
+    private double lastSeenTime;
+
+    private Obstacle(Translation2d center, double time) {
+      this.center = center;
+      this.lastSeenTime = time;
+    }
+  }
+
+  /**
+   * @param poseSupplier Current robot pose, used to place robot-relative sightings on the field
+   * @param sources Obstacle sources, or no-op implementations when replaying a log
+   */
+  public ObstacleTracker(Supplier<Pose2d> poseSupplier, ObstacleIO... sources) {
+    this.poseSupplier = poseSupplier;
+    this.sources = sources;
+    inputs = new ObstacleIOInputsAutoLogged[sources.length];
+    inputKeys = new String[sources.length];
+    for (int i = 0; i < sources.length; i++) {
+      inputs[i] = new ObstacleIOInputsAutoLogged();
+      inputKeys[i] = "Obstacles/Source" + i;
+    }
+  }
+
+  @Override
+  public void periodic() {
+    periodicTiming.start();
+
+    Pose2d pose = poseSupplier.get();
+    double now = Timer.getFPGATimestamp();
+    for (int i = 0; i < sources.length; i++) {
+      sources[i].updateInputs(inputs[i]);
+      Logger.processInputs(inputKeys[i], inputs[i]);
+
+      double[] robotRelative = inputs[i].robotRelativeCenters;
+      for (int j = 0; j + 1 < robotRelative.length; j += 2) {
+        observe(
+            pose.getTranslation()
+                .plus(
+                    new Translation2d(robotRelative[j], robotRelative[j + 1])
+                        .rotateBy(pose.getRotation())),
+            now);
+      }
+      double[] field = inputs[i].fieldCenters;
+      for (int j = 0; j + 1 < field.length; j += 2) {
+        observe(new Translation2d(field[j], field[j + 1]), now);
+      }
+    }
+
+    if (obstacles.removeIf(obstacle -> now - obstacle.lastSeenTime > DECAY_SECS)) {
+      changedSincePublish = true;
+    }
+    if (changedSincePublish && now - lastPublishTime >= PUBLISH_PERIOD_SECS) {
+      publish(pose.getTranslation());
+      lastPublishTime = now;
+      changedSincePublish = false;
+    }
+
+    Translation2d[] centers = new Translation2d[obstacles.size()];
+    for (int i = 0; i < centers.length; i++) {
+      centers[i] = obstacles.get(i).center;
+    }
+    Logger.recordOutput("Obstacles/Tracked", centers);
+    periodicTiming.stop();
+  }
+
+  /** Returns the number of obstacles being tracked. */
+  public int getObstacleCount() {
+    return obstacles.size();
+  }
+
+  private void observe(Translation2d center, double time) {
+    Obstacle nearest = null;
+    double nearestDistance = MATCH_DISTANCE_METERS;
+    for (Obstacle obstacle : obstacles) {
+      double distance = obstacle.center.getDistance(center);
+      if (distance < nearestDistance) {
+        nearest = obstacle;
+        nearestDistance = distance;
+      }
+    }
+
+    if (nearest == null) {
+      obstacles.add(new Obstacle(center, time));
+      changedSincePublish = true;
+      return;
+    }
+    nearest.center = center;
+    nearest.lastSeenTime = time;
+    if (nearest.publishedCenter == null
+        || nearest.publishedCenter.getDistance(center) > MOVE_THRESHOLD_METERS) {
+      changedSincePublish = true;
+    }
+  }
+
+  private void publish(Translation2d robotPosition) {
+    List<Pair<Translation2d, Translation2d>> boxes = new ArrayList<>(obstacles.size());
+    for (Obstacle obstacle : obstacles) {
+      Translation2d center = obstacle.center;
+      boxes.add(
+          Pair.of(
+              new Translation2d(
+                  center.getX() - OBSTACLE_HALF_SIZE_METERS,
+                  center.getY() - OBSTACLE_HALF_SIZE_METERS),
+              new Translation2d(
+                  center.getX() + OBSTACLE_HALF_SIZE_METERS,
+                  center.getY() + OBSTACLE_HALF_SIZE_METERS)));
+      obstacle.publishedCenter = center;
+    }
+    Pathfinding.setDynamicObstacles(boxes, robotPosition);
+    Logger.recordOutput("Obstacles/PublishedCount", boxes.size());
+  }
+}
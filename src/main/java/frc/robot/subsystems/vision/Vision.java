@@ -0,0 +1,147 @@
+package frc.robot.subsystems.vision;
+
+import static frc.robot.subsystems.vision.VisionThread.*;
+
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.subsystems.vision.VisionFusion.Result;
+import frc.robot.util.LoopProfiler;
+import frc.robot.util.limelight.Limelights;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Feeds the pose estimates collected by a {@link VisionIO} into the drive pose estimator. Every
+ * cycle the robot heading is published to the cameras for MegaTag2, then the observations that
+ * arrived since the last cycle are logged as inputs, taken in timestamp order across all cameras,
+ * weighted and fused by {@link VisionFusion}, and applied. {@link VisionTelemetry} tracks how old
+ * the measurements are and why any were rejected. Everything after the inputs runs the same way in
+ * log replay.
+ */
+public class Vision extends SubsystemBase {
+  /**
+   * Cameras read by the real robot, in the order of the observations' camera index. The rear camera
+   * runs the robot detector while teleop alignment is pathfinding, and its frames have no tags
+   * until it switches back.
+   */
+  public static final Limelights[] CAMERAS = {Limelights.LEFT, Limelights.RIGHT, Limelights.REAR};
+
+  private final VisionIO io;
+  private final VisionIOInputsAutoLogged inputs = new VisionIOInputsAutoLogged();
+  private final Supplier<Pose2d> odometryPoseSupplier;
+  private final DoubleSupplier yawRateRadPerSecSupplier;
+  private final VisionFusion fusion;
+  private final VisionTelemetry telemetry = new VisionTelemetry(CAMERAS);
+
+  private final int[] order = new int[OBSERVATION_CAPACITY];
+  private final Timer timeSinceLastMeasurement = new Timer();
+  private final LoopProfiler.Section periodicTiming = LoopProfiler.section("Subsystems/Vision");
+
+  // Latest estimate from each camera, accepted or not, for debugging camera placement
+  private final String[] cameraPoseKeys = new String[CAMERAS.length];
+  private final Pose2d[] cameraPoses = new Pose2d[CAMERAS.length];
+
+  /**
+   * @param io Camera IO, or a no-op implementation when replaying a log
+   * @param consumer Receives the fused measurements, normally the drive pose estimator
+   * @param odometryPoseSupplier Current robot pose, used for the MegaTag2 heading and to reject
+   *     outliers
+   * @param yawRateRadPerSecSupplier Current gyro yaw rate
+   */
+  public Vision(
+      VisionIO io,
+      VisionConsumer consumer,
+      Supplier<Pose2d> odometryPoseSupplier,
+      DoubleSupplier yawRateRadPerSecSupplier) {
+    this.io = io;
+    this.odometryPoseSupplier = odometryPoseSupplier;
+    this.yawRateRadPerSecSupplier = yawRateRadPerSecSupplier;
+    this.fusion = new VisionFusion(consumer);
+    for (int i = 0; i < CAMERAS.length; i++) {
+      cameraPoseKeys[i] = "Vision/" + CAMERAS[i].name + "/Pose";
+      cameraPoses[i] = new Pose2d();
+    }
+  }
+
+  @Override
+  public void periodic() {
+    periodicTiming.start();
+
+    // Give every camera this cycle's heading for MegaTag2
+    Pose2d odometryPose = odometryPoseSupplier.get();
+    double yawRateRadPerSec = yawRateRadPerSecSupplier.getAsDouble();
+    io.setRobotOrientation(
+        odometryPose.getRotation().getDegrees(), Units.radiansToDegrees(yawRateRadPerSec));
+
+    io.updateInputs(inputs);
+    Logger.processInputs("Vision", inputs);
+    telemetry.recordFrames(inputs);
+
+    double[] observations = inputs.observations;
+    int count = Math.min(observations.length / RECORD_WIDTH, OBSERVATION_CAPACITY);
+    sortByTimestamp(observations, count);
+
+    fusion.setRobotState(odometryPose, yawRateRadPerSec, DriverStation.isEnabled());
+    double now = Timer.getFPGATimestamp();
+    for (int i = 0; i < count; i++) {
+      int base = order[i] * RECORD_WIDTH;
+      Result result = fusion.add(observations, base);
+      if (result == Result.ACCEPTED) {
+        timeSinceLastMeasurement.restart();
+      }
+      telemetry.recordObservation(observations, base, result, now);
+      updateCameraPose(observations, base);
+    }
+    fusion.flush();
+
+    SmartDashboard.putNumber("Time Since Last ", timeSinceLastMeasurement.get());
+    telemetry.periodic();
+    Logger.recordOutput("Vision/DroppedObservations", inputs.droppedObservationCount);
+    for (int i = 0; i < CAMERAS.length; i++) {
+      Logger.recordOutput(cameraPoseKeys[i], cameraPoses[i]);
+    }
+    periodicTiming.stop();
+  }
+
+  /** Fills {@link #order} with the observation indices sorted by timestamp. */
+  private void sortByTimestamp(double[] observations, int count) {
+    // Each camera's observations already arrive in order, so insertion sort does little work
+    for (int i = 0; i < count; i++) {
+      double timestamp = observations[i * RECORD_WIDTH + TIMESTAMP];
+      int j = i - 1;
+      while (j >= 0 && observations[order[j] * RECORD_WIDTH + TIMESTAMP] > timestamp) {
+        order[j + 1] = order[j];
+        j--;
+      }
+      order[j + 1] = i;
+    }
+  }
+
+  private void updateCameraPose(double[] observations, int base) {
+    int camera = (int) observations[base + CAMERA];
+    if (camera >= 0 && camera < cameraPoses.length) {
+      cameraPoses[camera] =
+          new Pose2d(
+              observations[base + X],
+              observations[base + Y],
+              new Rotation2d(observations[base + THETA]));
+    }
+  }
+
+  @FunctionalInterface
+  public static interface VisionConsumer {
+    public void accept(
+        Pose2d visionRobotPoseMeters,
+        double timestampSeconds,
+        Matrix<N3, N1> visionMeasurementStdDevs);
+  }
+}
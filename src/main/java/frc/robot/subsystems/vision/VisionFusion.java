@@ -0,0 +1,243 @@
+package frc.robot.subsystems.vision;
+
+import static frc.robot.subsystems.vision.VisionThread.*;
+
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.Nat;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+import frc.robot.subsystems.vision.Vision.VisionConsumer;
+
+/**
+ * Weights camera observations and fuses the ones taken at the same moment into a single pose
+ * measurement.
+ *
+ * <p>While enabled only MegaTag2 estimates are used, and they are rejected while the robot spins
+ * faster than the cameras can track its heading. While disabled the robot may have been moved
+ * without the gyro knowing where it is on the field, so MegaTag1 estimates are used instead.
+ *
+ * <p>Each observation gets its own standard deviations: they grow with the square of the average
+ * tag distance and shrink with the number of tags and how far apart the tags are, and single-tag
+ * MegaTag1 estimates are penalized by their ambiguity. While enabled, observations further from
+ * the odometry pose than their own uncertainty plus some odometry drift allows are rejected as
+ * outliers. If odometry itself has drifted, the cameras keep disagreeing with it by the same
+ * offset, so after a few of those rejections in a row the observations are used again with inflated
+ * standard deviations until odometry is pulled back. Observations from different cameras whose
+ * timestamps fall within {@link #FUSION_WINDOW_SECS} of each other are combined with an
+ * inverse-variance weighted mean before being handed to the pose estimator.
+ */
+public class VisionFusion {
+  /** What {@link #add} did with an observation. */
+  public enum Result {
+    ACCEPTED,
+    /** From the MegaTag pipeline that isn't used in the current mode. Not a rejection. */
+    IGNORED,
+    REJECTED_YAW_RATE,
+    REJECTED_AMBIGUITY,
+    REJECTED_DISTANCE,
+    REJECTED_OUTLIER
+  }
+
+  /** Observations closer together than this are treated as the same moment. */
+  public static final double FUSION_WINDOW_SECS = 0.01;
+
+  // Standard deviations of a single tag seen from 1 meter away
+  private static final double LINEAR_STD_DEV_BASELINE = 0.08;
+  private static final double ANGULAR_STD_DEV_BASELINE = 0.12;
+
+  // Used for headings that vision cannot be trusted with: single-tag MegaTag1 estimates, and
+  // MegaTag2 estimates, whose heading is just the gyro heading we sent the camera
+  private static final double UNTRUSTED_ANGULAR_STD_DEV = 1e6;
+
+  // Single tag MegaTag1 estimates past these limits are too ambiguous to use
+  private static final double MAX_SINGLE_TAG_AMBIGUITY = 0.7;
+  private static final double MAX_SINGLE_TAG_DISTANCE = 3.0;
+
+  // Limelight's recommended limit for MegaTag2, 720 degrees per second
+  private static final double MAX_MEGATAG2_YAW_RATE_RAD_PER_SEC = 4.0 * Math.PI;
+
+  // How much a fully ambiguous single tag inflates its standard deviations
+  private static final double AMBIGUITY_WEIGHT = 4.0;
+
+  // Keeps very close tags from getting near-zero standard deviations
+  private static final double MIN_TAG_DISTANCE_METERS = 0.3;
+
+  // While enabled, observations are rejected when they are further from odometry than this many
+  // standard deviations of their own error combined with the drift odometry is allowed
+  private static final double OUTLIER_STD_DEVS = 3.0;
+  private static final double ODOMETRY_DRIFT_STD_DEV_METERS = 0.3;
+
+  // Rejections whose offsets from odometry agree to within this are the same odometry error, and
+  // after this many in a row odometry is assumed wrong. Those observations are used with their
+  // standard deviations scaled up, so odometry is corrected over a few measurements.
+  private static final double RECOVERY_AGREEMENT_METERS = 0.25;
+  private static final int RECOVERY_STREAK = 5;
+  private static final double RECOVERY_STD_DEV_SCALE = 3.0;
+
+  private final VisionConsumer consumer;
+  private final Matrix<N3, N1> stdDevs = new Matrix<>(Nat.N3(), Nat.N1());
+
+  // Robot state for the current cycle
+  private Pose2d odometryPose = new Pose2d();
+  private double yawRateRadPerSec = 0.0;
+  private boolean enabled = false;
+
+  // Outliers rejected in a row, and the last one's offset from odometry
+  private int rejectedStreak = 0;
+  private double rejectedOffsetX;
+  private double rejectedOffsetY;
+
+  // Inverse-variance weighted sums of the group being fused
+  private int groupSize = 0;
+  private double groupStartTimestamp;
+  private double timestampSum;
+  private double xWeightedSum;
+  private double yWeightedSum;
+  private double linearWeightSum;
+  private double cosWeightedSum;
+  private double sinWeightedSum;
+  private double angularWeightSum;
+
+  public VisionFusion(VisionConsumer consumer) {
+    this.consumer = consumer;
+  }
+
+  /**
+   * Sets the robot state that this cycle's observations are checked against. Call once per cycle
+   * before adding observations.
+   *
+   * @param odometryPose Current odometry pose for outlier rejection
+   * @param yawRateRadPerSec Current gyro yaw rate
+   * @param enabled Whether the robot is enabled, which selects MegaTag2 and outlier rejection
+   */
+  public void setRobotState(Pose2d odometryPose, double yawRateRadPerSec, boolean enabled) {
+    this.odometryPose = odometryPose;
+    this.yawRateRadPerSec = yawRateRadPerSec;
+    this.enabled = enabled;
+    if (!enabled) {
+      rejectedStreak = 0;
+    }
+  }
+
+  /**
+   * Scores one observation and adds it to the current group, first sending the group to the
+   * consumer if the observation was taken too long after it started. Observations must be added in
+   * timestamp order.
+   *
+   * @param observations Observation records from the {@link VisionThread}
+   * @param base Index of the observation's first value
+   * @return Whether the observation was used, or why not
+   */
+  public Result add(double[] observations, int base) {
+    boolean isMegaTag2 = observations[base + MEGATAG2] != 0.0;
+    if (isMegaTag2 != enabled) {
+      return Result.IGNORED;
+    }
+    if (isMegaTag2 && Math.abs(yawRateRadPerSec) > MAX_MEGATAG2_YAW_RATE_RAD_PER_SEC) {
+      return Result.REJECTED_YAW_RATE;
+    }
+
+    // If MegaTag1 only has one tag, reject it when it is ambiguous or far away. MegaTag2 takes
+    // its heading from the gyro, so a single tag is not ambiguous and stays usable at range.
+    int tagCount = (int) observations[base + TAG_COUNT];
+    if (!isMegaTag2 && tagCount == 1) {
+      if (observations[base + AMBIGUITY] > MAX_SINGLE_TAG_AMBIGUITY) {
+        return Result.REJECTED_AMBIGUITY;
+      }
+      if (observations[base + AVG_TAG_DIST] > MAX_SINGLE_TAG_DISTANCE) {
+        return Result.REJECTED_DISTANCE;
+      }
+    }
+
+    double distance = Math.max(observations[base + AVG_TAG_DIST], MIN_TAG_DISTANCE_METERS);
+    double scale = distance * distance / tagCount;
+    if (tagCount > 1) {
+      scale /= 1.0 + observations[base + TAG_SPAN];
+    } else if (!isMegaTag2) {
+      scale *= 1.0 + AMBIGUITY_WEIGHT * observations[base + AMBIGUITY];
+    }
+    double linearStdDev = LINEAR_STD_DEV_BASELINE * scale;
+    double angularStdDev =
+        tagCount > 1 && !isMegaTag2 ? ANGULAR_STD_DEV_BASELINE * scale : UNTRUSTED_ANGULAR_STD_DEV;
+
+    // Let vision place the robot freely while disabled
+    double x = observations[base + X];
+    double y = observations[base + Y];
+    if (enabled) {
+      double offsetX = x - odometryPose.getX();
+      double offsetY = y - odometryPose.getY();
+      if (Math.hypot(offsetX, offsetY)
+          > OUTLIER_STD_DEVS * Math.hypot(linearStdDev, ODOMETRY_DRIFT_STD_DEV_METERS)) {
+        boolean agrees =
+            rejectedStreak > 0
+                && Math.hypot(offsetX - rejectedOffsetX, offsetY - rejectedOffsetY)
+                    < RECOVERY_AGREEMENT_METERS;
+        rejectedStreak = agrees ? rejectedStreak + 1 : 1;
+        rejectedOffsetX = offsetX;
+        rejectedOffsetY = offsetY;
+        if (rejectedStreak < RECOVERY_STREAK) {
+          return Result.REJECTED_OUTLIER;
+        }
+        linearStdDev *= RECOVERY_STD_DEV_SCALE;
+        angularStdDev *= RECOVERY_STD_DEV_SCALE;
+      } else {
+        rejectedStreak = 0;
+      }
+    }
+
+    double timestamp = observations[base + TIMESTAMP];
+    if (groupSize > 0 && timestamp - groupStartTimestamp > FUSION_WINDOW_SECS) {
+      flush();
+    }
+    if (groupSize == 0) {
+      groupStartTimestamp = timestamp;
+    }
+
+    double linearWeight = 1.0 / (linearStdDev * linearStdDev);
+    double angularWeight = 1.0 / (angularStdDev * angularStdDev);
+    double theta = observations[base + THETA];
+    groupSize++;
+    timestampSum += timestamp;
+    xWeightedSum += x * linearWeight;
+    yWeightedSum += y * linearWeight;
+    linearWeightSum += linearWeight;
+    cosWeightedSum += Math.cos(theta) * angularWeight;
+    sinWeightedSum += Math.sin(theta) * angularWeight;
+    angularWeightSum += angularWeight;
+    return Result.ACCEPTED;
+  }
+
+  /** Sends the current group, if any, to the consumer. Call after the last observation. */
+  public void flush() {
+    if (groupSize == 0) {
+      return;
+    }
+
+    // Combined variance is the inverse of the summed inverse variances
+    double linearStdDev = 1.0 / Math.sqrt(linearWeightSum);
+    double angularStdDev = 1.0 / Math.sqrt(angularWeightSum);
+    stdDevs.set(0, 0, linearStdDev);
+    stdDevs.set(1, 0, linearStdDev);
+    stdDevs.set(2, 0, angularStdDev);
+
+    // The sums can be tiny when every heading is untrusted, too small for Rotation2d to normalize
+    consumer.accept(
+        new Pose2d(
+            xWeightedSum / linearWeightSum,
+            yWeightedSum / linearWeightSum,
+            Rotation2d.fromRadians(Math.atan2(sinWeightedSum, cosWeightedSum))),
+        timestampSum / groupSize,
+        stdDevs);
+
+    groupSize = 0;
+    timestampSum = 0.0;
+    xWeightedSum = 0.0;
+    yWeightedSum = 0.0;
+    linearWeightSum = 0.0;
+    cosWeightedSum = 0.0;
+    sinWeightedSum = 0.0;
+    angularWeightSum = 0.0;
+  }
+}
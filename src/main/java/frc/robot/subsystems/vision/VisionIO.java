@@ -0,0 +1,26 @@
+package frc.robot.subsystems.vision;
+
+import org.littletonrobotics.junction.AutoLog;
+
+public interface VisionIO {
+  @AutoLog
+  public static class VisionIOInputs {
+    /**
+     * Pose estimates received since the last cycle, laid out as {@link VisionThread#RECORD_WIDTH}
+     * values each.
+     */
+    public double[] observations = new double[0];
+
+    public long droppedObservationCount = 0;
+
+    // Per camera totals, in the order of the observations' camera index
+    public long[] frameCounts = new long[0];
+    public long[] noTagFrameCounts = new long[0];
+    public long[] heartbeats = new long[0]; // Counts up every frame the camera processes
+  }
+
+  public default void updateInputs(VisionIOInputs inputs) {}
+
+  /** Sends the robot heading every camera needs for MegaTag2. */
+  public default void setRobotOrientation(double yawDegrees, double yawRateDegPerSec) {}
+}
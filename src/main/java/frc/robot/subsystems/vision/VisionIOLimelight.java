@@ -0,0 +1,65 @@
+package frc.robot.subsystems.vision;
+
+import static frc.robot.subsystems.vision.VisionThread.*;
+
+import edu.wpi.first.networktables.IntegerSubscriber;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import frc.robot.util.limelight.LimelightHelpers;
+import frc.robot.util.limelight.Limelights;
+import java.util.Arrays;
+
+/** IO implementation for Limelights, read on a {@link VisionThread}. */
+public class VisionIOLimelight implements VisionIO {
+  private static final double[] NO_OBSERVATIONS = new double[0];
+
+  private final Limelights[] cameras;
+  private final VisionThread visionThread;
+  private final IntegerSubscriber[] heartbeats;
+  private final double[] polled = new double[OBSERVATION_CAPACITY * RECORD_WIDTH];
+
+  /**
+   * @param cameras Cameras to read, in the order of the observations' {@link VisionThread#CAMERA}
+   *     index
+   */
+  public VisionIOLimelight(Limelights... cameras) {
+    this.cameras = cameras;
+    visionThread = new VisionThread(cameras);
+    visionThread.start();
+
+    heartbeats = new IntegerSubscriber[cameras.length];
+    for (int i = 0; i < cameras.length; i++) {
+      heartbeats[i] =
+          NetworkTableInstance.getDefault()
+              .getTable(cameras[i].name)
+              .getIntegerTopic("hb")
+              .subscribe(0);
+    }
+  }
+
+  @Override
+  public void updateInputs(VisionIOInputs inputs) {
+    int count = visionThread.poll(polled);
+    inputs.observations =
+        count == 0 ? NO_OBSERVATIONS : Arrays.copyOf(polled, count * RECORD_WIDTH);
+    inputs.droppedObservationCount = visionThread.getDroppedObservationCount();
+
+    inputs.frameCounts = new long[cameras.length];
+    inputs.noTagFrameCounts = new long[cameras.length];
+    inputs.heartbeats = new long[cameras.length];
+    for (int i = 0; i < cameras.length; i++) {
+      inputs.frameCounts[i] = visionThread.getFrameCount(i);
+      inputs.noTagFrameCounts[i] = visionThread.getNoTagFrameCount(i);
+      inputs.heartbeats[i] = heartbeats[i].get();
+    }
+  }
+
+  @Override
+  public void setRobotOrientation(double yawDegrees, double yawRateDegPerSec) {
+    for (Limelights camera : cameras) {
+      LimelightHelpers.SetRobotOrientation_NoFlush(
+          camera.name, yawDegrees, yawRateDegPerSec, 0.0, 0.0, 0.0, 0.0);
+    }
+    // One flush sends every camera's orientation together
+    LimelightHelpers.Flush();
+  }
+}
@@ -0,0 +1,176 @@
+package frc.robot.subsystems.vision;
+
+import static frc.robot.subsystems.vision.VisionThread.*;
+
+import frc.robot.subsystems.vision.VisionFusion.Result;
+import frc.robot.util.LoopProfiler;
+import frc.robot.util.limelight.Limelights;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Per camera statistics on how old vision measurements are and how many of them are used. The
+ * latencies are {@link LoopProfiler} histograms, so their p50, p99 and max are logged under
+ * "Vision/" plus the camera name with the loop timing, and frame and rejection counts are logged
+ * over windows of the same {@link LoopProfiler#getPublishPeriod() period}. Latencies are recorded
+ * once per frame, from its MegaTag1 observation, and are:
+ *
+ * <ul>
+ *   <li>Capture and pipeline, as reported by the camera, and their total from the pose array
+ *   <li>Transport, from the camera publishing the estimate to the vision thread receiving it
+ *   <li>Age, from the image being captured to the estimate reaching the pose estimator
+ * </ul>
+ *
+ * <p>Skipped frames are frames the camera's heartbeat counted that never arrived. Everything is
+ * computed from {@link VisionIO} inputs, so it is the same in log replay.
+ */
+public class VisionTelemetry {
+  private static final double BUCKET_WIDTH_MS = 1.0;
+  private static final double RANGE_MS = 200.0;
+
+  private static final Result[] RESULTS = Result.values();
+
+  private final CameraTelemetry[] cameras;
+  private int cyclesSincePublish = 0;
+
+  // Totals for the current cycle across all cameras
+  private int cycleAcceptedCount = 0;
+  private int cycleRejectedCount = 0;
+
+  private static class CameraTelemetry {
+    private final LoopProfiler.Section captureLatency;
+    private final LoopProfiler.Section pipelineLatency;
+    private final LoopProfiler.Section totalLatency;
+    private final LoopProfiler.Section transportDelay;
+    private final LoopProfiler.Section age;
+
+    private final long[] resultCounts = new long[RESULTS.length];
+    private final String[] resultKeys = new String[RESULTS.length];
+    private long noTagFrameCount = 0;
+    private long skippedFrameCount = 0;
+    private final String noTagKey;
+    private final String skippedKey;
+    private final String acceptRateKey;
+
+    // Totals from the last cycle's inputs, negative until the first cycle
+    private long lastFrameCount = -1;
+    private long lastNoTagFrameCount = -1;
+    private long lastHeartbeat = -1;
+
+    private CameraTelemetry(String name) {
+      String prefix = "Vision/" + name + "/";
+      captureLatency = LoopProfiler.histogram(prefix + "CaptureLatency", BUCKET_WIDTH_MS, RANGE_MS);
+      pipelineLatency =
+          LoopProfiler.histogram(prefix + "PipelineLatency", BUCKET_WIDTH_MS, RANGE_MS);
+      totalLatency = LoopProfiler.histogram(prefix + "TotalLatency", BUCKET_WIDTH_MS, RANGE_MS);
+      transportDelay = LoopProfiler.histogram(prefix + "TransportDelay", BUCKET_WIDTH_MS, RANGE_MS);
+      age = LoopProfiler.histogram(prefix + "Age", BUCKET_WIDTH_MS, RANGE_MS);
+      for (Result result : RESULTS) {
+        resultKeys[result.ordinal()] = prefix + "Results/" + result.name();
+      }
+      noTagKey = prefix + "Results/REJECTED_NO_TAGS";
+      skippedKey = prefix + "SkippedFrames";
+      acceptRateKey = prefix + "AcceptRate";
+    }
+
+    private void publish() {
+      // Ignored observations belong to the other pipeline and don't count either way
+      long acceptedCount = resultCounts[Result.ACCEPTED.ordinal()];
+      long consideredCount = noTagFrameCount;
+      for (Result result : RESULTS) {
+        int i = result.ordinal();
+        Logger.recordOutput(resultKeys[i], resultCounts[i]);
+        if (result != Result.IGNORED) {
+          consideredCount += resultCounts[i];
+        }
+        resultCounts[i] = 0;
+      }
+      Logger.recordOutput(noTagKey, noTagFrameCount);
+      Logger.recordOutput(skippedKey, skippedFrameCount);
+      Logger.recordOutput(
+          acceptRateKey, consideredCount == 0 ? 0.0 : (double) acceptedCount / consideredCount);
+      noTagFrameCount = 0;
+      skippedFrameCount = 0;
+    }
+  }
+
+  /** @param cameras Cameras in the order of the observations' camera index */
+  public VisionTelemetry(Limelights[] cameras) {
+    this.cameras = new CameraTelemetry[cameras.length];
+    for (int i = 0; i < cameras.length; i++) {
+      this.cameras[i] = new CameraTelemetry(cameras[i].name);
+    }
+  }
+
+  /** Counts the frames received and skipped since the last cycle. Call once per cycle. */
+  public void recordFrames(VisionIO.VisionIOInputs inputs) {
+    // The arrays are empty when replaying a log recorded before they existed
+    int count = Math.min(cameras.length, inputs.heartbeats.length);
+    for (int i = 0; i < count; i++) {
+      CameraTelemetry camera = cameras[i];
+      long frameCount = inputs.frameCounts[i];
+      long noTagFrameCount = inputs.noTagFrameCounts[i];
+      long heartbeat = inputs.heartbeats[i];
+      if (camera.lastHeartbeat >= 0) {
+        long frames = frameCount - camera.lastFrameCount;
+        camera.noTagFrameCount += noTagFrameCount - camera.lastNoTagFrameCount;
+        // The heartbeat restarts when the camera reboots
+        long heartbeats = heartbeat - camera.lastHeartbeat;
+        camera.skippedFrameCount += Math.max(heartbeats - frames, 0);
+      }
+      camera.lastFrameCount = frameCount;
+      camera.lastNoTagFrameCount = noTagFrameCount;
+      camera.lastHeartbeat = heartbeat;
+    }
+  }
+
+  /**
+   * Records one observation's latencies and what fusion did with it.
+   *
+   * @param observations Observation records from the {@link VisionThread}
+   * @param base Index of the observation's first value
+   * @param result Result of adding the observation to {@link VisionFusion}
+   * @param nowSeconds Current FPGA time
+   */
+  public void recordObservation(double[] observations, int base, Result result, double nowSeconds) {
+    int index = (int) observations[base + CAMERA];
+    if (index < 0 || index >= cameras.length) {
+      return;
+    }
+    CameraTelemetry camera = cameras[index];
+    camera.resultCounts[result.ordinal()]++;
+    if (result == Result.ACCEPTED) {
+      cycleAcceptedCount++;
+    } else if (result != Result.IGNORED) {
+      cycleRejectedCount++;
+    }
+
+    // Both estimates of a frame carry the same latencies, so only count the MegaTag1 one
+    if (observations[base + MEGATAG2] != 0.0) {
+      return;
+    }
+    camera.captureLatency.record(observations[base + CAPTURE_LATENCY_MS]);
+    camera.pipelineLatency.record(observations[base + PIPELINE_LATENCY_MS]);
+    camera.totalLatency.record(observations[base + TOTAL_LATENCY_MS]);
+    camera.transportDelay.record(observations[base + TRANSPORT_DELAY_MS]);
+    camera.age.record((nowSeconds - observations[base + TIMESTAMP]) * 1000.0);
+  }
+
+  /**
+   * Logs this cycle's observation counts, and the statistics when the window has elapsed. Call
+   * once at the end of each cycle.
+   */
+  public void periodic() {
+    Logger.recordOutput("Vision/AcceptedObservations", cycleAcceptedCount);
+    Logger.recordOutput("Vision/RejectedObservations", cycleRejectedCount);
+    cycleAcceptedCount = 0;
+    cycleRejectedCount = 0;
+
+    if (++cyclesSincePublish < LoopProfiler.getPublishPeriod()) {
+      return;
+    }
+    cyclesSincePublish = 0;
+    for (CameraTelemetry camera : cameras) {
+      camera.publish();
+    }
+  }
+}
@@ -0,0 +1,198 @@
+package frc.robot.subsystems.vision;
+
+import edu.wpi.first.networktables.DoubleArraySubscriber;
+import edu.wpi.first.networktables.DoubleSubscriber;
+import edu.wpi.first.networktables.NetworkTableEvent;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.NetworkTableListenerPoller;
+import edu.wpi.first.networktables.PubSubOption;
+import edu.wpi.first.util.WPIUtilJNI;
+import frc.robot.util.DoubleRingBuffer;
+import frc.robot.util.limelight.LimelightHelpers;
+import frc.robot.util.limelight.LimelightHelpers.PoseEstimate;
+import frc.robot.util.limelight.Limelights;
+import java.util.EnumSet;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Receives Limelight pose estimates off the main loop. The thread blocks on NetworkTables value
+ * events for each camera's MegaTag1 ("botpose_wpiblue") and MegaTag2 ("botpose_orb_wpiblue")
+ * topics, parses every estimate that sees a tag as it arrives, and publishes them as fixed-width
+ * records in a lock-free ring. {@link #poll(double[])} drains them from the main loop. Filtering is
+ * left to {@link VisionFusion}, so it can be tuned against replayed logs.
+ *
+ * <p>Each record also carries the camera's latencies and how long the estimate took to get from
+ * the camera to this thread. Frames are counted per camera on the MegaTag1 topic, which the camera
+ * publishes every frame, so frames without tags can be told apart from frames that never arrived.
+ */
+public class VisionThread extends Thread {
+  /** Number of observations held between main loop cycles before new ones are dropped. */
+  public static final int OBSERVATION_CAPACITY = 32;
+
+  // Observation record layout
+  public static final int CAMERA = 0;
+  public static final int TIMESTAMP = 1;
+  public static final int X = 2;
+  public static final int Y = 3;
+  public static final int THETA = 4;
+  public static final int TAG_COUNT = 5;
+  public static final int AVG_TAG_DIST = 6;
+  public static final int TAG_SPAN = 7;
+  public static final int AMBIGUITY = 8; // Highest ambiguity of any tag in the estimate
+  public static final int MEGATAG2 = 9; // 1 for MegaTag2 estimates, 0 for MegaTag1
+  public static final int CAPTURE_LATENCY_MS = 10;
+  public static final int PIPELINE_LATENCY_MS = 11;
+  public static final int TOTAL_LATENCY_MS = 12; // Capture plus pipeline, from the pose array
+  public static final int TRANSPORT_DELAY_MS = 13; // From publishing on the camera to this thread
+  public static final int RECORD_WIDTH = 14;
+
+  private static final String[] POSE_TOPICS = {"botpose_wpiblue", "botpose_orb_wpiblue"};
+
+  private final DoubleArraySubscriber[] subscribers;
+  private final DoubleSubscriber[] captureLatencies;
+  private final DoubleSubscriber[] pipelineLatencies;
+  private final int[] listenerHandles;
+  private final NetworkTableListenerPoller poller =
+      new NetworkTableListenerPoller(NetworkTableInstance.getDefault());
+
+  private final DoubleRingBuffer observations =
+      new DoubleRingBuffer(OBSERVATION_CAPACITY, RECORD_WIDTH);
+  private final PoseEstimate estimate = new PoseEstimate();
+  private final double[] parsedObservation = new double[RECORD_WIDTH];
+  private final AtomicLongArray frameCounts;
+  private final AtomicLongArray noTagFrameCounts;
+
+  public VisionThread(Limelights... cameras) {
+    setName("VisionThread");
+    setDaemon(true);
+
+    // One subscriber per camera and topic, indexed by camera * POSE_TOPICS.length + topic
+    subscribers = new DoubleArraySubscriber[cameras.length * POSE_TOPICS.length];
+    listenerHandles = new int[subscribers.length];
+    for (int i = 0; i < subscribers.length; i++) {
+      // Queue every value, so estimates published between events are not skipped
+      subscribers[i] =
+          NetworkTableInstance.getDefault()
+              .getTable(cameras[i / POSE_TOPICS.length].name)
+              .getDoubleArrayTopic(POSE_TOPICS[i % POSE_TOPICS.length])
+              .subscribe(new double[0], PubSubOption.sendAll(true));
+      listenerHandles[i] =
+          poller.addListener(subscribers[i], EnumSet.of(NetworkTableEvent.Kind.kValueAll));
+    }
+
+    // Published separately from the pose, so these are the latencies of the latest frame
+    captureLatencies = new DoubleSubscriber[cameras.length];
+    pipelineLatencies = new DoubleSubscriber[cameras.length];
+    for (int i = 0; i < cameras.length; i++) {
+      var table = NetworkTableInstance.getDefault().getTable(cameras[i].name);
+      captureLatencies[i] = table.getDoubleTopic("cl").subscribe(0.0);
+      pipelineLatencies[i] = table.getDoubleTopic("tl").subscribe(0.0);
+    }
+    frameCounts = new AtomicLongArray(cameras.length);
+    noTagFrameCounts = new AtomicLongArray(cameras.length);
+  }
+
+  @Override
+  public void run() {
+    while (true) {
+      try {
+        WPIUtilJNI.waitForObject(poller.getHandle());
+      } catch (InterruptedException e) {
+        return;
+      }
+
+      for (NetworkTableEvent event : poller.readQueue()) {
+        if (event.valueData == null) {
+          continue;
+        }
+        int subscriber = getSubscriberIndex(event.listener);
+        if (subscriber >= 0
+            && parse(
+                subscriber / POSE_TOPICS.length,
+                subscriber % POSE_TOPICS.length == 1,
+                event.valueData.value.getDoubleArray(),
+                event.valueData.value.getTime(),
+                WPIUtilJNI.now())) {
+          observations.offer(parsedObservation);
+        }
+      }
+    }
+  }
+
+  private int getSubscriberIndex(int listenerHandle) {
+    for (int i = 0; i < listenerHandles.length; i++) {
+      if (listenerHandles[i] == listenerHandle) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Parses a botpose array into {@link #parsedObservation}.
+   *
+   * @return False if the estimate has no tags
+   */
+  private boolean parse(
+      int camera, boolean isMegaTag2, double[] pose, long timestampMicros, long receivedMicros) {
+    if (pose.length == 0) {
+      return false;
+    }
+    if (!isMegaTag2) {
+      frameCounts.incrementAndGet(camera);
+    }
+    LimelightHelpers.parsePoseEstimate(pose, timestampMicros, isMegaTag2, estimate);
+    if (estimate.tagCount == 0) {
+      if (!isMegaTag2) {
+        noTagFrameCounts.incrementAndGet(camera);
+      }
+      return false; // Don't add vision when we can't see a tag
+    }
+
+    parsedObservation[CAMERA] = camera;
+    parsedObservation[TIMESTAMP] = estimate.timestampSeconds;
+    parsedObservation[X] = estimate.pose.getX();
+    parsedObservation[Y] = estimate.pose.getY();
+    parsedObservation[THETA] = estimate.pose.getRotation().getRadians();
+    parsedObservation[TAG_COUNT] = estimate.tagCount;
+    parsedObservation[AVG_TAG_DIST] = estimate.avgTagDist;
+    parsedObservation[TAG_SPAN] = estimate.tagSpan;
+    double maxAmbiguity = 0.0;
+    for (int i = 0; i < estimate.rawFiducialCount; i++) {
+      maxAmbiguity = Math.max(maxAmbiguity, estimate.rawFiducials[i].ambiguity);
+    }
+    parsedObservation[AMBIGUITY] = maxAmbiguity;
+    parsedObservation[MEGATAG2] = isMegaTag2 ? 1.0 : 0.0;
+    parsedObservation[CAPTURE_LATENCY_MS] = captureLatencies[camera].get();
+    parsedObservation[PIPELINE_LATENCY_MS] = pipelineLatencies[camera].get();
+    parsedObservation[TOTAL_LATENCY_MS] = estimate.latency;
+    parsedObservation[TRANSPORT_DELAY_MS] = (receivedMicros - timestampMicros) / 1000.0;
+    return true;
+  }
+
+  /**
+   * Moves every observation accepted since the last call into the destination, oldest first for
+   * each camera. Must be called from the main loop.
+   *
+   * @param dest Array of at least {@code OBSERVATION_CAPACITY * RECORD_WIDTH} values
+   * @return The number of observations copied
+   */
+  public int poll(double[] dest) {
+    return observations.drainTo(dest);
+  }
+
+  /** Returns the total number of observations dropped because the main loop fell behind. */
+  public long getDroppedObservationCount() {
+    return observations.getOverflowCount();
+  }
+
+  /** Returns the total number of frames received from a camera. */
+  public long getFrameCount(int camera) {
+    return frameCounts.get(camera);
+  }
+
+  /** Returns the total number of frames received from a camera that saw no tags. */
+  public long getNoTagFrameCount(int camera) {
+    return noTagFrameCounts.get(camera);
+  }
+}
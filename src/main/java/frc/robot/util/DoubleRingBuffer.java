@@ -0,0 +1,128 @@
+package frc.robot.util;
+
+/**
+ * Fixed-capacity ring buffer of primitive doubles, used to hand samples from one producer thread to
+ * one consumer thread without boxing or locking.
+ *
+ * <p>Values are stored in fixed-width records. A record is only visible to the consumer once every
+ * value in it has been written, so a multi-value record (such as a full odometry frame) is never
+ * observed half-written.
+ *
+ * <p>Only one thread may call {@link #offer}, and only one thread may call {@link #drainTo} or
+ * {@link #clear}. When the buffer is full, new records are dropped and counted, matching the
+ * behavior of {@link java.util.concurrent.ArrayBlockingQueue#offer} that this replaces.
+ */
+public class DoubleRingBuffer {
+  private final double[] buffer;
+  private final int capacity;
+  private final int recordWidth;
+
+  // Both indices count records and only ever increase, each is written by exactly one side
+  private volatile long writeIndex = 0;
+  private volatile long readIndex = 0;
+  private volatile long overflowCount = 0;
+
+  /** Creates a buffer of single values. */
+  public DoubleRingBuffer(int capacity) {
+    this(capacity, 1);
+  }
+
+  /**
+   * Creates a buffer of fixed-width records.
+   *
+   * @param capacity Number of records the buffer can hold
+   * @param recordWidth Number of values in each record
+   */
+  public DoubleRingBuffer(int capacity, int recordWidth) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Ring buffer capacity must be positive, got " + capacity);
+    }
+    if (recordWidth <= 0) {
+      throw new IllegalArgumentException(
+          "Ring buffer record width must be positive, got " + recordWidth);
+    }
+    this.capacity = capacity;
+    this.recordWidth = recordWidth;
+    this.buffer = new double[capacity * recordWidth];
+  }
+
+  /**
+   * Adds a sample to a buffer of single values. Producer only.
+   *
+   * @return False if the buffer was full and the sample was dropped
+   */
+  public boolean offer(double value) {
+    if (recordWidth != 1) {
+      throw new IllegalStateException("Use offer(double[]) for records of width " + recordWidth);
+    }
+    long write = writeIndex;
+    if (write - readIndex >= capacity) {
+      overflowCount = overflowCount + 1;
+      return false;
+    }
+    buffer[(int) (write % capacity)] = value;
+    writeIndex = write + 1; // Publishes the sample to the consumer
+    return true;
+  }
+
+  /**
+   * Adds a record to the buffer. Producer only.
+   *
+   * @param record Values to copy, the first {@link #getRecordWidth()} values are used
+   * @return False if the buffer was full and the record was dropped
+   */
+  public boolean offer(double[] record) {
+    long write = writeIndex;
+    if (write - readIndex >= capacity) {
+      overflowCount = overflowCount + 1;
+      return false;
+    }
+    System.arraycopy(record, 0, buffer, (int) (write % capacity) * recordWidth, recordWidth);
+    writeIndex = write + 1; // Publishes the whole record to the consumer
+    return true;
+  }
+
+  /**
+   * Moves the available records into the destination array, oldest first. Consumer only.
+   *
+   * @param dest Array to copy into, at most {@code dest.length / getRecordWidth()} records are
+   *     removed
+   * @return The number of records copied
+   */
+  public int drainTo(double[] dest) {
+    long read = readIndex;
+    int count = (int) Math.min(writeIndex - read, dest.length / recordWidth);
+    int start = (int) (read % capacity);
+    int firstLength = Math.min(count, capacity - start);
+    System.arraycopy(buffer, start * recordWidth, dest, 0, firstLength * recordWidth);
+    System.arraycopy(
+        buffer, 0, dest, firstLength * recordWidth, (count - firstLength) * recordWidth);
+    readIndex = read + count; // Releases the slots back to the producer
+    return count;
+  }
+
+  /** Discards all available records. Consumer only. */
+  public void clear() {
+    readIndex = writeIndex;
+  }
+
+  /** Returns the number of records waiting to be drained. */
+  public int size() {
+    return (int) (writeIndex - readIndex);
+  }
+
+  /** Returns the maximum number of records the buffer can hold. */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /** Returns the number of values in each record. */
+  public int getRecordWidth() {
+    return recordWidth;
+  }
+
+  /** Returns the total number of records dropped because the buffer was full. */
+  public long getOverflowCount() {
+    return overflowCount;
+  }
+}
@@ -0,0 +1,164 @@
+package frc.robot.util;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.filter.Debouncer;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import edu.wpi.first.wpilibj.Timer;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Drives the last stretch onto a target pose once path following hands off. Translation follows a
+ * trapezoid profile of the distance along the straight line to the goal, so the robot drives
+ * straight at it within one speed limit, and heading follows its own. Both start from the robot's
+ * pose at the handoff and the velocity of the path's end state, so there is no jump in commanded
+ * speed along the line and no measurement noise or latency in the profile. The profile velocity is
+ * used as feedforward with a proportional correction on top.
+ *
+ * <p>Commands take effect about one loop after they are calculated, so the correction is computed
+ * against the pose the robot is predicted to reach by then. The approach is settled once the pose
+ * is within tolerance and the robot has stopped, held for {@link #SETTLE_TIME_SECS}.
+ */
+public class FinalApproachController {
+  private static final double LOOP_PERIOD_SECS = 0.02;
+
+  private static final TrapezoidProfile.Constraints LINEAR_CONSTRAINTS =
+      new TrapezoidProfile.Constraints(2.0, 3.0);
+  private static final TrapezoidProfile.Constraints ANGULAR_CONSTRAINTS =
+      new TrapezoidProfile.Constraints(4.0, 8.0);
+  private static final double LINEAR_KP = 4.0;
+  private static final double ANGULAR_KP = 4.0;
+
+  private static final double LINEAR_TOLERANCE_METERS = 0.02;
+  private static final double ANGULAR_TOLERANCE_RAD = Math.toRadians(1.0);
+  private static final double LINEAR_SETTLED_SPEED = 0.05;
+  private static final double ANGULAR_SETTLED_SPEED = 0.1;
+  private static final double SETTLE_TIME_SECS = 0.1;
+
+  private final TrapezoidProfile linearProfile = new TrapezoidProfile(LINEAR_CONSTRAINTS);
+  private final TrapezoidProfile angularProfile = new TrapezoidProfile(ANGULAR_CONSTRAINTS);
+  private final Debouncer settledDebouncer =
+      new Debouncer(SETTLE_TIME_SECS, Debouncer.DebounceType.kRising);
+
+  // Translation setpoint, and its speed towards the goal along the line between them
+  private Translation2d translationSetpoint = new Translation2d();
+  private double setpointSpeed = 0.0;
+  private Translation2d direction = new Translation2d(1.0, 0.0);
+  private TrapezoidProfile.State thetaSetpoint = new TrapezoidProfile.State();
+  private final TrapezoidProfile.State distanceGoal = new TrapezoidProfile.State();
+  private final TrapezoidProfile.State thetaGoal = new TrapezoidProfile.State();
+
+  private Pose2d goal = new Pose2d();
+  private boolean settled = false;
+  private double startTime = 0.0;
+
+  /**
+   * Starts a new approach from the robot's current state.
+   *
+   * @param pose Current robot pose
+   * @param handoffVelocity Field-relative velocity that path following last commanded, from the
+   *     path's end state
+   * @param goal Pose to settle on
+   */
+  public void reset(Pose2d pose, ChassisSpeeds handoffVelocity, Pose2d goal) {
+    translationSetpoint = pose.getTranslation();
+    thetaSetpoint =
+        new TrapezoidProfile.State(
+            pose.getRotation().getRadians(), handoffVelocity.omegaRadiansPerSecond);
+    settledDebouncer.calculate(false);
+    settled = false;
+    startTime = Timer.getFPGATimestamp();
+    setGoal(goal);
+
+    // Only the part of the handoff velocity along the line carries over into the profile
+    Translation2d toGoal = goal.getTranslation().minus(translationSetpoint);
+    if (toGoal.getNorm() > 1e-6) {
+      direction = toGoal.div(toGoal.getNorm());
+    }
+    setpointSpeed =
+        handoffVelocity.vxMetersPerSecond * direction.getX()
+            + handoffVelocity.vyMetersPerSecond * direction.getY();
+  }
+
+  /**
+   * Moves the goal without restarting the profiles. The line is redrawn from the current setpoint,
+   * keeping its speed.
+   */
+  public void setGoal(Pose2d goal) {
+    this.goal = goal;
+  }
+
+  /**
+   * Returns the field-relative speeds to command this cycle.
+   *
+   * @param pose Current robot pose
+   * @param fieldVelocity Current field-relative robot velocity
+   */
+  public ChassisSpeeds calculate(Pose2d pose, ChassisSpeeds fieldVelocity) {
+    // Where the robot will be when these speeds take effect
+    double predictedX = pose.getX() + fieldVelocity.vxMetersPerSecond * LOOP_PERIOD_SECS;
+    double predictedY = pose.getY() + fieldVelocity.vyMetersPerSecond * LOOP_PERIOD_SECS;
+    double predictedTheta =
+        pose.getRotation().getRadians() + fieldVelocity.omegaRadiansPerSecond * LOOP_PERIOD_SECS;
+
+    // Take the short way around to the goal heading
+    thetaGoal.position =
+        thetaSetpoint.position
+            + MathUtil.angleModulus(goal.getRotation().getRadians() - thetaSetpoint.position);
+
+    // Profile the distance left to the goal down to zero, then place the setpoint on the line
+    Translation2d toGoal = goal.getTranslation().minus(translationSetpoint);
+    double distance = toGoal.getNorm();
+    if (distance > 1e-6) {
+      // Keep the part of the setpoint's velocity along the new line, if the goal or line has moved
+      Translation2d newDirection = toGoal.div(distance);
+      setpointSpeed *=
+          newDirection.getX() * direction.getX() + newDirection.getY() * direction.getY();
+      direction = newDirection;
+    }
+    TrapezoidProfile.State distanceSetpoint =
+        linearProfile.calculate(
+            LOOP_PERIOD_SECS, new TrapezoidProfile.State(distance, -setpointSpeed), distanceGoal);
+    translationSetpoint = goal.getTranslation().minus(direction.times(distanceSetpoint.position));
+    setpointSpeed = -distanceSetpoint.velocity;
+    thetaSetpoint = angularProfile.calculate(LOOP_PERIOD_SECS, thetaSetpoint, thetaGoal);
+
+    double vx =
+        direction.getX() * setpointSpeed + LINEAR_KP * (translationSetpoint.getX() - predictedX);
+    double vy =
+        direction.getY() * setpointSpeed + LINEAR_KP * (translationSetpoint.getY() - predictedY);
+    double omega =
+        thetaSetpoint.velocity
+            + ANGULAR_KP * MathUtil.angleModulus(thetaSetpoint.position - predictedTheta);
+
+    boolean inTolerance =
+        Math.abs(goal.getX() - pose.getX()) < LINEAR_TOLERANCE_METERS
+            && Math.abs(goal.getY() - pose.getY()) < LINEAR_TOLERANCE_METERS
+            && Math.abs(
+                    MathUtil.angleModulus(
+                        goal.getRotation().getRadians() - pose.getRotation().getRadians()))
+                < ANGULAR_TOLERANCE_RAD
+            && Math.hypot(fieldVelocity.vxMetersPerSecond, fieldVelocity.vyMetersPerSecond)
+                < LINEAR_SETTLED_SPEED
+            && Math.abs(fieldVelocity.omegaRadiansPerSecond) < ANGULAR_SETTLED_SPEED;
+    boolean wasSettled = settled;
+    settled = settledDebouncer.calculate(inTolerance);
+    if (settled && !wasSettled) {
+      Logger.recordOutput("FinalApproach/TimeToSettleSecs", Timer.getFPGATimestamp() - startTime);
+    }
+
+    Logger.recordOutput(
+        "FinalApproach/Setpoint",
+        new Pose2d(translationSetpoint, new Rotation2d(thetaSetpoint.position)));
+    Logger.recordOutput("FinalApproach/Goal", goal);
+    return new ChassisSpeeds(vx, vy, omega);
+  }
+
+  /** Returns whether the robot has held the goal pose long enough to count as there. */
+  public boolean isSettled() {
+    return settled;
+  }
+}
@@ -0,0 +1,74 @@
+package frc.robot.util;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-bucket histogram of durations in milliseconds. All storage is allocated up front, so
+ * recording a sample never allocates. Samples above the range land in an overflow bucket and are
+ * still reflected in {@link #getMax()}.
+ *
+ * <p>The histogram covers one reporting window: read the statistics, then {@link #reset()}.
+ */
+public class LatencyHistogram {
+  private final double bucketWidthMs;
+  private final long[] counts; // Last bucket holds everything past the range
+  private long sampleCount = 0;
+  private double maxMs = 0.0;
+
+  /**
+   * @param bucketWidthMs Resolution of the percentiles
+   * @param rangeMs Largest duration with bucket resolution
+   */
+  public LatencyHistogram(double bucketWidthMs, double rangeMs) {
+    this.bucketWidthMs = bucketWidthMs;
+    this.counts = new long[(int) Math.ceil(rangeMs / bucketWidthMs) + 1];
+  }
+
+  /** Adds one duration to the histogram. */
+  public void record(double durationMs) {
+    int bucket = (int) (Math.max(durationMs, 0.0) / bucketWidthMs);
+    counts[Math.min(bucket, counts.length - 1)]++;
+    sampleCount++;
+    if (durationMs > maxMs) {
+      maxMs = durationMs;
+    }
+  }
+
+  /**
+   * Returns the duration below which the given fraction of samples fall, rounded up to the bucket
+   * edge.
+   *
+   * @param fraction Percentile from 0 to 1, for example 0.99 for p99
+   */
+  public double getPercentile(double fraction) {
+    if (sampleCount == 0) {
+      return 0.0;
+    }
+    long target = Math.max(1, (long) Math.ceil(fraction * sampleCount));
+    long cumulative = 0;
+    for (int i = 0; i < counts.length - 1; i++) {
+      cumulative += counts[i];
+      if (cumulative >= target) {
+        return Math.min((i + 1) * bucketWidthMs, maxMs);
+      }
+    }
+    return maxMs;
+  }
+
+  /** Returns the largest duration recorded. */
+  public double getMax() {
+    return maxMs;
+  }
+
+  /** Returns the number of durations recorded. */
+  public long getCount() {
+    return sampleCount;
+  }
+
+  /** Clears all samples to start a new window. */
+  public void reset() {
+    Arrays.fill(counts, 0);
+    sampleCount = 0;
+    maxMs = 0.0;
+  }
+}
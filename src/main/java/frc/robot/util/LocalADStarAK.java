@@ -18,9 +18,16 @@ import org.littletonrobotics.junction.inputs.LoggableInputs;
 // NOTE: This file is available at
 // https://gist.github.com/mjansen4857/a8024b55eb427184dbd10ae8923bd57d
 
+// Extended with a PathCache: when a pathfind has been planned before, the cached path is returned
+// right away while LocalADStar plans a fresh one, which then replaces it.
 public class LocalADStarAK implements Pathfinder {
   private final ADStarIO io = new ADStarIO();
 
+  /** Returns the cache of planned paths, for precomputing paths ahead of time. */
+  public PathCache getPathCache() {
+    return io.pathCache;
+  }
+
   /**
    * Get if a new path has been calculated since the last time a path was retrieved
    *
@@ -69,6 +76,8 @@ public class LocalADStarAK implements Pathfinder {
   public void setStartPosition(Translation2d startPosition) {
     if (!Logger.hasReplaySource()) {
       io.adStar.setStartPosition(startPosition);
+      io.startPosition = startPosition;
+      io.lookUpCachedPath();
     }
   }
 
@@ -82,6 +91,8 @@ public class LocalADStarAK implements Pathfinder {
   public void setGoalPosition(Translation2d goalPosition) {
     if (!Logger.hasReplaySource()) {
       io.adStar.setGoalPosition(goalPosition);
+      io.goalPosition = goalPosition;
+      io.lookUpCachedPath();
     }
   }
 
@@ -98,6 +109,11 @@ public class LocalADStarAK implements Pathfinder {
       List<Pair<Translation2d, Translation2d>> obs, Translation2d currentRobotPos) {
     if (!Logger.hasReplaySource()) {
       io.adStar.setDynamicObstacles(obs, currentRobotPos);
+      // Cached paths don't know about obstacles, so only use and learn them on a clear field
+      io.hasDynamicObstacles = !obs.isEmpty();
+      if (io.hasDynamicObstacles) {
+        io.cachedPath = null;
+      }
     }
   }
 
@@ -106,6 +122,12 @@ public class LocalADStarAK implements Pathfinder {
     public boolean isNewPathAvailable = false;
     public List<PathPoint> currentPathPoints = Collections.emptyList();
 
+    public final PathCache pathCache = new PathCache();
+    public Translation2d startPosition = null;
+    public Translation2d goalPosition = null;
+    public boolean hasDynamicObstacles = false;
+    public List<PathPoint> cachedPath = null; // Waiting to be returned as the current path
+
     @Override
     public void toLog(LogTable table) {
       table.put("IsNewPathAvailable", isNewPathAvailable);
@@ -136,15 +158,31 @@ public class LocalADStarAK implements Pathfinder {
       currentPathPoints = pathPoints;
     }
 
+    public void lookUpCachedPath() {
+      if (startPosition != null && goalPosition != null && !hasDynamicObstacles) {
+        cachedPath = pathCache.get(startPosition, goalPosition);
+      }
+    }
+
     public void updateIsNewPathAvailable() {
-      isNewPathAvailable = adStar.isNewPathAvailable();
+      isNewPathAvailable = cachedPath != null || adStar.isNewPathAvailable();
     }
 
     public void updateCurrentPathPoints(PathConstraints constraints, GoalEndState goalEndState) {
+      if (cachedPath != null && !adStar.isNewPathAvailable()) {
+        currentPathPoints = cachedPath;
+        cachedPath = null;
+        return;
+      }
+      cachedPath = null;
+
       PathPlannerPath currentPath = adStar.getCurrentPath(constraints, goalEndState);
 
       if (currentPath != null) {
         currentPathPoints = currentPath.getAllPathPoints();
+        if (!hasDynamicObstacles && startPosition != null && goalPosition != null) {
+          pathCache.put(startPosition, goalPosition, currentPathPoints);
+        }
       } else {
         currentPathPoints = Collections.emptyList();
       }
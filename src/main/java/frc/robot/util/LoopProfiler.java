@@ -0,0 +1,145 @@
+package frc.robot.util;
+
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Nanosecond timers for the pieces of the main loop (subsystem periodics, commands and {@link
+ * frc.robot.Robot} phases). Each timed section keeps a preallocated {@link LatencyHistogram}, and
+ * the p50, p99 and max of every section are logged under "LoopTiming/" at a low rate so loop
+ * overruns can be traced back to their cause in match logs.
+ *
+ * <p>Every command the scheduler runs is timed through its hooks once {@link
+ * #recordCommands(CommandScheduler)} is called, see there for what a command's section covers.
+ *
+ * <p>Everything here must be used from the main robot thread.
+ */
+public final class LoopProfiler {
+  /** Default number of robot cycles between publishing statistics (once per second). */
+  public static final int DEFAULT_PUBLISH_PERIOD_CYCLES = 50;
+
+  private static final double BUCKET_WIDTH_MS = 0.05;
+  private static final double RANGE_MS = 20.0;
+
+  private static final Map<String, Section> sections = new LinkedHashMap<>();
+  private static int publishPeriodCycles = DEFAULT_PUBLISH_PERIOD_CYCLES;
+  private static int cyclesSincePublish = 0;
+
+  // Sections of the commands that are scheduled, and when the last timed piece of the scheduler's
+  // command loop ended
+  private static final Map<Command, Section> commandSections = new HashMap<>();
+  private static long lastCommandMarkNanos = 0;
+
+  private LoopProfiler() {}
+
+  /**
+   * A timed piece of the loop, or any other latency histogram published with them. Keep a reference
+   * to it rather than looking it up every cycle.
+   */
+  public static class Section {
+    private final LatencyHistogram histogram;
+    private final String p50Key;
+    private final String p99Key;
+    private final String maxKey;
+    private final String countKey;
+    private long startNanos = 0;
+
+    private Section(String key, double bucketWidthMs, double rangeMs) {
+      histogram = new LatencyHistogram(bucketWidthMs, rangeMs);
+      p50Key = key + "/P50Ms";
+      p99Key = key + "/P99Ms";
+      maxKey = key + "/MaxMs";
+      countKey = key + "/Count";
+    }
+
+    /** Starts timing the section. */
+    public void start() {
+      startNanos = System.nanoTime();
+    }
+
+    /** Stops timing the section and records the elapsed time. */
+    public void stop() {
+      record((System.nanoTime() - startNanos) / 1e6);
+    }
+
+    /** Records a latency measured some other way, in milliseconds. */
+    public void record(double milliseconds) {
+      histogram.record(milliseconds);
+    }
+
+    private void publish() {
+      Logger.recordOutput(p50Key, histogram.getPercentile(0.5));
+      Logger.recordOutput(p99Key, histogram.getPercentile(0.99));
+      Logger.recordOutput(maxKey, histogram.getMax());
+      Logger.recordOutput(countKey, histogram.getCount());
+      histogram.reset();
+    }
+  }
+
+  /** Returns the section with the given name, creating it the first time it is requested. */
+  public static Section section(String name) {
+    return histogram("LoopTiming/" + name, BUCKET_WIDTH_MS, RANGE_MS);
+  }
+
+  /**
+   * Returns a histogram logged under the given key, creating it the first time it is requested.
+   * It is published with the loop timing, so it follows {@link #setPublishPeriod(int)}.
+   */
+  public static Section histogram(String key, double bucketWidthMs, double rangeMs) {
+    return sections.computeIfAbsent(key, k -> new Section(k, bucketWidthMs, rangeMs));
+  }
+
+  /** Sets how many robot cycles pass between publishing statistics. */
+  public static void setPublishPeriod(int cycles) {
+    publishPeriodCycles = Math.max(1, cycles);
+  }
+
+  /** Returns how many robot cycles pass between publishing statistics. */
+  public static int getPublishPeriod() {
+    return publishPeriodCycles;
+  }
+
+  /**
+   * Times every command the scheduler runs under "Commands/" plus the command's name. Call once,
+   * after the button bindings are made.
+   *
+   * <p>The scheduler's only hook runs just after a command's execute, so each command is charged
+   * the time from the end of button polling, or from the previous command's hook, to its own hook.
+   * That is its execute plus the previous command's isFinished and the scheduler's bookkeeping in
+   * between, which is small next to any execute worth profiling. Commands that share a name share a
+   * section, so give the ones worth telling apart a name.
+   */
+  public static void recordCommands(CommandScheduler scheduler) {
+    // Bound last, so it runs after every trigger has been polled and right before the commands
+    scheduler.getDefaultButtonLoop().bind(() -> lastCommandMarkNanos = System.nanoTime());
+    scheduler.onCommandExecute(LoopProfiler::recordCommand);
+    scheduler.onCommandFinish(commandSections::remove);
+    scheduler.onCommandInterrupt(commandSections::remove);
+  }
+
+  private static void recordCommand(Command command) {
+    long now = System.nanoTime();
+    Section section = commandSections.get(command);
+    if (section == null) {
+      section = section("Commands/" + command.getName());
+      commandSections.put(command, section);
+    }
+    section.record((now - lastCommandMarkNanos) / 1e6);
+    lastCommandMarkNanos = now;
+  }
+
+  /** Publishes statistics when the publish period has elapsed. Call once at the end of a cycle. */
+  public static void periodic() {
+    if (++cyclesSincePublish < publishPeriodCycles) {
+      return;
+    }
+    cyclesSincePublish = 0;
+    for (Section section : sections.values()) {
+      section.publish();
+    }
+  }
+}
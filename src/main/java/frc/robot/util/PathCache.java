@@ -0,0 +1,162 @@
+package frc.robot.util;
+
+import com.pathplanner.lib.path.GoalEndState;
+import com.pathplanner.lib.path.PathConstraints;
+import com.pathplanner.lib.path.PathPlannerPath;
+import com.pathplanner.lib.path.PathPoint;
+import com.pathplanner.lib.pathfinding.LocalADStar;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.util.Units;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Pathfinding results keyed by start region and goal, so a pathfind that has been planned before
+ * gets a path immediately instead of waiting for the planner thread. Start positions are grouped
+ * into {@link #START_REGION_METERS} square regions, and goals are matched to the centimeter, which
+ * suits the fixed set of alignment targets. A cached path starts where its plan started, so it is
+ * only served when the actual start is within {@link #MAX_JOIN_DISTANCE_METERS} of that, and the
+ * actual start is put in front of it. The joining segment isn't checked against the navgrid, so it
+ * is kept shorter than a grid node. Anything further away is left to the planner.
+ *
+ * <p>Paths are added as the planner produces them, and {@link #precompute} plans a set of start and
+ * goal pairs in the background ahead of time. Safe to use from any thread.
+ */
+public class PathCache {
+  /** Size of the square regions start positions are grouped into. */
+  public static final double START_REGION_METERS = 1.0;
+
+  /** Furthest the actual start can be from a cached path's start for it to be served. */
+  public static final double MAX_JOIN_DISTANCE_METERS = 0.2;
+
+  // How close a path has to end to the goal to be a plan to it, rather than to a previous goal
+  private static final double GOAL_TOLERANCE_METERS = 0.05;
+
+  private static final long PLAN_TIMEOUT_MS = 2000;
+  private static final long PLAN_POLL_MS = 5;
+
+  // Only the positions of the points are kept, so these don't affect the cached paths
+  private static final PathConstraints PLAN_CONSTRAINTS =
+      new PathConstraints(4.0, 4.0, Units.degreesToRadians(540), Units.degreesToRadians(720));
+  private static final GoalEndState PLAN_END_STATE = new GoalEndState(0.0, new Rotation2d());
+
+  private final Map<Long, List<Translation2d>> paths = new ConcurrentHashMap<>();
+
+  // Created on first use, and the planner is only touched by the executor's thread
+  private ExecutorService precomputeExecutor = null;
+  private LocalADStar planner = null;
+
+  /**
+   * Returns the cached path from the start position's region to the goal, beginning at the start
+   * position, or null if there is none or it starts too far from the start position.
+   */
+  public List<PathPoint> get(Translation2d start, Translation2d goal) {
+    List<Translation2d> positions = paths.get(key(start, goal));
+    if (positions == null || positions.get(0).getDistance(start) > MAX_JOIN_DISTANCE_METERS) {
+      return null;
+    }
+
+    List<PathPoint> points = new ArrayList<>(positions.size() + 1);
+    points.add(new PathPoint(start, null));
+    for (Translation2d position : positions) {
+      points.add(new PathPoint(position, null));
+    }
+    return points;
+  }
+
+  /**
+   * Caches a planned path, replacing any earlier path between the same start region and goal. A
+   * path that doesn't end at the goal is a stale plan to an earlier goal, and is ignored.
+   */
+  public void put(Translation2d start, Translation2d goal, List<PathPoint> points) {
+    if (points.size() < 2 || !endsAt(points, goal)) {
+      return;
+    }
+    List<Translation2d> positions = new ArrayList<>(points.size());
+    for (PathPoint point : points) {
+      positions.add(point.position);
+    }
+    paths.put(key(start, goal), positions);
+  }
+
+  /**
+   * Plans a path from every start to every goal in the background, with its own planner so
+   * pathfinding commands are not held up. Pairs that are already cached are skipped. Calls are
+   * queued and run one after another.
+   *
+   * <p>The planning itself runs on the planner's own thread, which is created from the low
+   * priority executor thread so it inherits that priority. LocalADStar can't be stopped, so that
+   * thread idles for the rest of the run once precomputing is done.
+   */
+  public synchronized void precompute(List<Translation2d> starts, List<Translation2d> goals) {
+    if (precomputeExecutor == null) {
+      precomputeExecutor =
+          Executors.newSingleThreadExecutor(
+              runnable -> {
+                Thread thread = new Thread(runnable, "PathCachePrecompute");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+              });
+    }
+
+    List<Translation2d> startsCopy = List.copyOf(starts);
+    List<Translation2d> goalsCopy = List.copyOf(goals);
+    precomputeExecutor.execute(
+        () -> {
+          if (planner == null) {
+            planner = new LocalADStar(); // Its thread takes this thread's priority
+          }
+          for (Translation2d goal : goalsCopy) {
+            for (Translation2d start : startsCopy) {
+              if (!paths.containsKey(key(start, goal))
+                  && start.getDistance(goal) > START_REGION_METERS) {
+                plan(start, goal);
+              }
+            }
+          }
+        });
+  }
+
+  private void plan(Translation2d start, Translation2d goal) {
+    planner.setStartPosition(start);
+    planner.setGoalPosition(goal);
+
+    // The start and goal are separate requests, so the first path can still be to the last goal
+    long deadline = System.currentTimeMillis() + PLAN_TIMEOUT_MS;
+    while (System.currentTimeMillis() <= deadline) {
+      if (planner.isNewPathAvailable()) {
+        PathPlannerPath path = planner.getCurrentPath(PLAN_CONSTRAINTS, PLAN_END_STATE);
+        if (path != null && endsAt(path.getAllPathPoints(), goal)) {
+          put(start, goal, path.getAllPathPoints());
+          return;
+        }
+      }
+      try {
+        Thread.sleep(PLAN_POLL_MS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  private static boolean endsAt(List<PathPoint> points, Translation2d goal) {
+    return !points.isEmpty()
+        && points.get(points.size() - 1).position.getDistance(goal) <= GOAL_TOLERANCE_METERS;
+  }
+
+  private static long key(Translation2d start, Translation2d goal) {
+    // 8 bits per start region coordinate and 16 bits per goal centimeter coordinate
+    long startX = (long) Math.floor(start.getX() / START_REGION_METERS) & 0xFF;
+    long startY = (long) Math.floor(start.getY() / START_REGION_METERS) & 0xFF;
+    long goalX = Math.round(goal.getX() * 100.0) & 0xFFFF;
+    long goalY = Math.round(goal.getY() * 100.0) & 0xFFFF;
+    return startX << 40 | startY << 32 | goalX << 16 | goalY;
+  }
+}
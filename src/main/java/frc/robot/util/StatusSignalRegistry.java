@@ -0,0 +1,44 @@
+package frc.robot.util;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Collects the Phoenix status signals read by the main loop so they can all be refreshed with one
+ * {@link BaseStatusSignal#refreshAll} call per CAN bus at the start of every cycle. IO
+ * implementations and subsystems register their signals once and then only read the cached values
+ * (for example {@link BaseStatusSignal#getValueAsDouble()}), which never crosses into native code.
+ *
+ * <p>A batched refresh returns one status for the whole bus, so per-device connection checks should
+ * use {@link BaseStatusSignal#isAllGood} on that device's own signals.
+ *
+ * <p>Everything here must be used from the main robot thread. Signals sampled by {@link
+ * frc.robot.subsystems.drive.PhoenixOdometryThread} are refreshed on that thread instead.
+ */
+public final class StatusSignalRegistry {
+  private static final Map<String, BaseStatusSignal[]> signalsByBus = new LinkedHashMap<>();
+
+  private StatusSignalRegistry() {}
+
+  /**
+   * Adds signals to the batched refresh.
+   *
+   * @param canBus Name of the bus the signals' devices are on, as passed to the device constructor
+   * @param signals Signals to refresh every cycle
+   */
+  public static void register(String canBus, BaseStatusSignal... signals) {
+    BaseStatusSignal[] existing = signalsByBus.getOrDefault(canBus, new BaseStatusSignal[0]);
+    BaseStatusSignal[] combined = new BaseStatusSignal[existing.length + signals.length];
+    System.arraycopy(existing, 0, combined, 0, existing.length);
+    System.arraycopy(signals, 0, combined, existing.length, signals.length);
+    signalsByBus.put(canBus, combined);
+  }
+
+  /** Refreshes every registered signal, one call per bus. Call once at the start of each cycle. */
+  public static void refreshAll() {
+    for (BaseStatusSignal[] signals : signalsByBus.values()) {
+      BaseStatusSignal.refreshAll(signals);
+    }
+  }
+}
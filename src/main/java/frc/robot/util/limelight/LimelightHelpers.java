@@ -519,6 +519,13 @@ public class LimelightHelpers {
     public RawFiducial[] rawFiducials;
     public boolean isMegaTag2;
 
+    /**
+     * Number of valid entries at the start of {@link #rawFiducials}. Estimates that are reused by
+     * {@link LimelightHelpers#parsePoseEstimate} keep their fiducial objects between frames, so the
+     * array can be longer than this.
+     */
+    public int rawFiducialCount;
+
     /** Instantiates a PoseEstimate object with default values */
     public PoseEstimate() {
       this.pose = new Pose2d();
@@ -530,6 +537,7 @@ public class LimelightHelpers {
       this.avgTagArea = 0;
       this.rawFiducials = new RawFiducial[] {};
       this.isMegaTag2 = false;
+      this.rawFiducialCount = 0;
     }
 
     public PoseEstimate(
@@ -552,6 +560,7 @@ public class LimelightHelpers {
       this.avgTagArea = avgTagArea;
       this.rawFiducials = rawFiducials;
       this.isMegaTag2 = isMegaTag2;
+      this.rawFiducialCount = rawFiducials.length;
     }
   }
 
@@ -655,54 +664,78 @@ public class LimelightHelpers {
         LimelightHelpers.getLimelightDoubleArrayEntry(limelightName, entryName);
 
     TimestampedDoubleArray tsValue = poseEntry.getAtomic();
-    double[] poseArray = tsValue.value;
-    long timestamp = tsValue.timestamp;
-
-    if (poseArray.length == 0) {
+    if (tsValue.value.length == 0) {
       // Handle the case where no data is available
       return null; // or some default PoseEstimate
     }
 
-    var pose = toPose2D(poseArray);
+    PoseEstimate estimate = new PoseEstimate();
+    parsePoseEstimate(tsValue.value, tsValue.timestamp, isMegaTag2, estimate);
+    return estimate;
+  }
+
+  /**
+   * Decodes a botpose array into an existing estimate. The estimate's {@link RawFiducial} objects
+   * are reused and its pose is only replaced when the robot pose changes, so parsing a frame with
+   * no more tags than any earlier frame does not allocate.
+   *
+   * @param poseArray Botpose array as published by the Limelight
+   * @param timestampMicros NetworkTables time the array was published, in microseconds
+   * @param isMegaTag2 Whether the array came from a MegaTag2 entry
+   * @param estimate Estimate to overwrite
+   */
+  public static void parsePoseEstimate(
+      double[] poseArray, long timestampMicros, boolean isMegaTag2, PoseEstimate estimate) {
+    double x = extractArrayEntry(poseArray, 0);
+    double y = extractArrayEntry(poseArray, 1);
+    double yawRad = Units.degreesToRadians(extractArrayEntry(poseArray, 5));
+    if (estimate.pose.getX() != x
+        || estimate.pose.getY() != y
+        || estimate.pose.getRotation().getRadians() != yawRad) {
+      estimate.pose = new Pose2d(x, y, new Rotation2d(yawRad));
+    }
+
     double latency = extractArrayEntry(poseArray, 6);
     int tagCount = (int) extractArrayEntry(poseArray, 7);
-    double tagSpan = extractArrayEntry(poseArray, 8);
-    double tagDist = extractArrayEntry(poseArray, 9);
-    double tagArea = extractArrayEntry(poseArray, 10);
+    estimate.latency = latency;
+    estimate.tagCount = tagCount;
+    estimate.tagSpan = extractArrayEntry(poseArray, 8);
+    estimate.avgTagDist = extractArrayEntry(poseArray, 9);
+    estimate.avgTagArea = extractArrayEntry(poseArray, 10);
+    estimate.isMegaTag2 = isMegaTag2;
 
     // Convert server timestamp from microseconds to seconds and adjust for latency
-    double adjustedTimestamp = (timestamp / 1000000.0) - (latency / 1000.0);
+    estimate.timestampSeconds = (timestampMicros / 1000000.0) - (latency / 1000.0);
 
-    RawFiducial[] rawFiducials = new RawFiducial[tagCount];
     int valsPerFiducial = 7;
     int expectedTotalVals = 11 + valsPerFiducial * tagCount;
 
     if (poseArray.length != expectedTotalVals) {
       // Don't populate fiducials
-    } else {
-      for (int i = 0; i < tagCount; i++) {
-        int baseIndex = 11 + (i * valsPerFiducial);
-        int id = (int) poseArray[baseIndex];
-        double txnc = poseArray[baseIndex + 1];
-        double tync = poseArray[baseIndex + 2];
-        double ta = poseArray[baseIndex + 3];
-        double distToCamera = poseArray[baseIndex + 4];
-        double distToRobot = poseArray[baseIndex + 5];
-        double ambiguity = poseArray[baseIndex + 6];
-        rawFiducials[i] = new RawFiducial(id, txnc, tync, ta, distToCamera, distToRobot, ambiguity);
-      }
+      estimate.rawFiducialCount = 0;
+      return;
     }
 
-    return new PoseEstimate(
-        pose,
-        adjustedTimestamp,
-        latency,
-        tagCount,
-        tagSpan,
-        tagDist,
-        tagArea,
-        rawFiducials,
-        isMegaTag2);
+    if (estimate.rawFiducials.length < tagCount) {
+      RawFiducial[] grown = new RawFiducial[tagCount];
+      System.arraycopy(estimate.rawFiducials, 0, grown, 0, estimate.rawFiducials.length);
+      for (int i = estimate.rawFiducials.length; i < tagCount; i++) {
+        grown[i] = new RawFiducial(0, 0, 0, 0, 0, 0, 0);
+      }
+      estimate.rawFiducials = grown;
+    }
+    for (int i = 0; i < tagCount; i++) {
+      int baseIndex = 11 + (i * valsPerFiducial);
+      RawFiducial fiducial = estimate.rawFiducials[i];
+      fiducial.id = (int) poseArray[baseIndex];
+      fiducial.txnc = poseArray[baseIndex + 1];
+      fiducial.tync = poseArray[baseIndex + 2];
+      fiducial.ta = poseArray[baseIndex + 3];
+      fiducial.distToCamera = poseArray[baseIndex + 4];
+      fiducial.distToRobot = poseArray[baseIndex + 5];
+      fiducial.ambiguity = poseArray[baseIndex + 6];
+    }
+    estimate.rawFiducialCount = tagCount;
   }
 
   /**
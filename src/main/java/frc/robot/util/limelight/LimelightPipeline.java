@@ -2,7 +2,8 @@ package frc.robot.util.limelight;
 
 public enum LimelightPipeline {
   APRIL_TAG(0),
-  CORAL_DETECTOR(1);
+  CORAL_DETECTOR(1),
+  ROBOT_DETECTOR(2);
 
   public final int pipeline;
 
@@ -0,0 +1,114 @@
+package frc.robot.util.limelight;
+
+import edu.wpi.first.networktables.IntegerSubscriber;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.util.WPIUtilJNI;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Checks whether each Limelight is reachable without ever blocking the main loop. Every camera is
+ * probed on its own background thread with an HTTP HEAD request to its web server, and its
+ * NetworkTables heartbeat ("hb", which counts up every processed frame) is checked for recent
+ * changes. The last time each camera answered either way is kept in an atomic cache that {@link
+ * #isConnected} reads.
+ *
+ * <p>All timestamps are in microseconds on the NetworkTables clock, which is the FPGA clock on the
+ * robot.
+ */
+public final class LimelightProber {
+  private static final long PROBE_PERIOD_MS = 1000;
+
+  // The probe runs off the main loop, so it can wait long enough for a busy camera to answer
+  private static final int HTTP_TIMEOUT_MS = 250;
+
+  // A camera counts as connected if it answered within this long
+  private static final long STALE_AFTER_MICROS = 2_500_000;
+
+  private static final Limelights[] cameras = Limelights.values();
+  private static final AtomicLongArray lastHttpResponseMicros = new AtomicLongArray(cameras.length);
+  private static final AtomicLongArray lastHeartbeatMicros = new AtomicLongArray(cameras.length);
+  private static final IntegerSubscriber[] heartbeats = new IntegerSubscriber[cameras.length];
+
+  private static ScheduledExecutorService executor;
+
+  private LimelightProber() {}
+
+  /** Starts probing every camera in the background. Calling again has no effect. */
+  public static synchronized void start() {
+    if (executor != null) {
+      return;
+    }
+
+    for (int i = 0; i < cameras.length; i++) {
+      heartbeats[i] =
+          NetworkTableInstance.getDefault()
+              .getTable(cameras[i].name)
+              .getIntegerTopic("hb")
+              .subscribe(0);
+    }
+
+    // One thread per camera, so a camera that is timing out never delays the others
+    executor =
+        Executors.newScheduledThreadPool(
+            cameras.length,
+            runnable -> {
+              Thread thread = new Thread(runnable, "LimelightProber");
+              thread.setDaemon(true);
+              thread.setPriority(Thread.MIN_PRIORITY);
+              return thread;
+            });
+    for (int i = 0; i < cameras.length; i++) {
+      int camera = i;
+      executor.scheduleWithFixedDelay(
+          () -> probe(camera), 0, PROBE_PERIOD_MS, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /** Returns whether the camera answered a probe or published a new frame recently. */
+  public static boolean isConnected(Limelights camera) {
+    long lastSeen = getLastSeenMicros(camera);
+    return lastSeen != 0 && WPIUtilJNI.now() - lastSeen < STALE_AFTER_MICROS;
+  }
+
+  /** Returns when the camera last answered a probe or published a new frame, or 0 if never. */
+  public static long getLastSeenMicros(Limelights camera) {
+    int i = camera.ordinal();
+    return Math.max(lastHttpResponseMicros.get(i), lastHeartbeatMicros.get(i));
+  }
+
+  private static void probe(int camera) {
+    // Last change is 0 until the camera has published a heartbeat
+    long heartbeatChange = heartbeats[camera].getLastChange();
+    if (heartbeatChange != 0) {
+      lastHeartbeatMicros.set(camera, heartbeatChange);
+    }
+
+    if (isWebServerResponding(cameras[camera].ip)) {
+      lastHttpResponseMicros.set(camera, WPIUtilJNI.now());
+    }
+  }
+
+  private static boolean isWebServerResponding(String ip) {
+    HttpURLConnection connection = null;
+    try {
+      connection = (HttpURLConnection) new URL(String.format("http://%s/", ip)).openConnection();
+      connection.setConnectTimeout(HTTP_TIMEOUT_MS);
+      connection.setReadTimeout(HTTP_TIMEOUT_MS);
+      connection.setRequestMethod("HEAD");
+      return connection.getResponseCode() == 200;
+    } catch (IOException e) {
+      // Timeouts, refused connections and unreachable hosts all mean the camera isn't there
+      return false;
+    } finally {
+      if (connection != null) {
+        connection.disconnect();
+      }
+    }
+  }
+}
@@ -0,0 +1,132 @@
+package frc.robot.commands.autoCommands;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.Constants.BoathookConstants;
+import frc.robot.subsystems.Leds;
+import frc.robot.subsystems.boathook.Boathook;
+import frc.robot.subsystems.boathook.BoathookIOSim;
+import frc.robot.subsystems.intake.Intake;
+import frc.robot.subsystems.intake.IntakeIOSim;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs the intake and boathook commands through the scheduler against {@link IntakeIOSim} and
+ * {@link BoathookIOSim}, on simulated time, and checks that each one finishes in time and leaves
+ * the mechanisms where it should. The time bounds leave about a quarter on top of what the sims
+ * take, so a move that stalls against gravity or a sensor that never trips fails here.
+ */
+class BoathookCommandsSimTest {
+  private static final double LOOP_PERIOD_SECS = 0.02;
+  private static final double MAX_TIME_SECS = 10.0;
+
+  // Only one LED string can be opened per port, so every test shares it
+  private static Leds leds;
+
+  private Intake intake;
+  private Boathook boathook;
+  private IntakeCommands intakeCommands;
+  private BoathookCommands boathookCommands;
+
+  @BeforeAll
+  static void setupLeds() {
+    HAL.initialize(500, 0);
+    leds = new Leds();
+  }
+
+  @BeforeEach
+  void setup() {
+    SimHooks.pauseTiming();
+    DriverStationSim.setDsAttached(true);
+    DriverStationSim.setEnabled(true);
+    DriverStationSim.notifyNewData();
+
+    intake = new Intake(new IntakeIOSim());
+    boathook = new Boathook(new BoathookIOSim());
+    intakeCommands = new IntakeCommands(intake);
+    boathookCommands = new BoathookCommands(boathook, leds);
+
+    // Let the subsystems read their starting positions
+    CommandScheduler.getInstance().run();
+    SimHooks.stepTiming(LOOP_PERIOD_SECS);
+  }
+
+  @AfterEach
+  void cleanup() {
+    CommandScheduler.getInstance().cancelAll();
+    CommandScheduler.getInstance().unregisterAllSubsystems();
+    DriverStationSim.setEnabled(false);
+    DriverStationSim.notifyNewData();
+    SimHooks.resumeTiming();
+  }
+
+  @Test
+  void intakesCoral() {
+    double time = intakeCoral();
+
+    assertTrue(intake.isCoralIntaken(), "No coral after " + time + " s");
+    assertTrue(time < 1.0, "Intaking took " + time + " s");
+  }
+
+  @Test
+  void handsOffCoral() {
+    intakeCoral();
+    double time = run(boathookCommands.handoffCommand(intakeCommands, leds));
+
+    assertTrue(time < 5.0, "Handoff took " + time + " s");
+    assertFalse(intake.isCoralIntaken(), "Coral still in the intake");
+    assertEquals(93, boathook.getAngle(), Boathook.ANGLE_TOLERANCE_DEG);
+  }
+
+  @Test
+  void extendsAndRetractsL4() {
+    double extendTime = run(boathookCommands.extendL4());
+
+    assertTrue(extendTime < 5.0, "Extending took " + extendTime + " s");
+    assertEquals(97, boathook.getAngle(), Boathook.ANGLE_TOLERANCE_DEG);
+    assertEquals(
+        BoathookConstants.EXTENDER_FORWARD_LIMIT,
+        boathook.getLength(),
+        Boathook.LENGTH_TOLERANCE_ROT);
+
+    double retractTime = run(boathookCommands.retractL4());
+
+    assertTrue(retractTime < 5.5, "Retracting took " + retractTime + " s");
+    assertEquals(93, boathook.getAngle(), Boathook.ANGLE_TOLERANCE_DEG);
+    assertEquals(0.2, boathook.getLength(), Boathook.LENGTH_TOLERANCE_ROT);
+  }
+
+  private double intakeCoral() {
+    return run(
+        intakeCommands
+            .intakeDownCommand()
+            .andThen(intakeCommands.runIntakeCommand().until(intake::isCoralIntaken)));
+  }
+
+  /**
+   * Schedules the command and steps the scheduler until it finishes.
+   *
+   * @return Seconds the command ran for
+   */
+  private double run(Command command) {
+    CommandScheduler.getInstance().schedule(command);
+    for (double time = 0.0; time < MAX_TIME_SECS; time += LOOP_PERIOD_SECS) {
+      CommandScheduler.getInstance().run();
+      if (!command.isScheduled()) {
+        return time;
+      }
+      SimHooks.stepTiming(LOOP_PERIOD_SECS);
+    }
+    return Double.POSITIVE_INFINITY;
+  }
+}
@@ -0,0 +1,168 @@
+package frc.robot.subsystems.boathook;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import frc.robot.Constants.BoathookConstants;
+import frc.robot.subsystems.boathook.BoathookTrajectory.Leg;
+import frc.robot.subsystems.boathook.BoathookTrajectory.State;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that {@link BoathookTrajectory} keeps the hook out of the region over the intake, stays
+ * within the soft limits and each axis' velocity and acceleration limits, and samples a continuous
+ * path, by sampling it finely from start to end.
+ */
+class BoathookTrajectoryTest {
+  private static final double SAMPLE_PERIOD_SECS = 0.001;
+  private static final double EPSILON = 1e-6;
+
+  private static final double MAX_ANGLE = BoathookConstants.ROTATOR_FORWARD_LIMIT * 360.0;
+  private static final double MAX_ANGULAR_VELOCITY = BoathookConstants.ROTATOR_MAX_VELOCITY * 360.0;
+  private static final double MAX_ANGULAR_ACCELERATION =
+      BoathookConstants.ROTATOR_MAX_ACCELERATION * 360.0;
+
+  private static final State HANDOFF = new State(25, 0.06);
+  private static final State L4 = new State(97, 4.6);
+
+  @Test
+  void extendL4FromHandoffGoesAroundIntake() {
+    BoathookTrajectory trajectory = BoathookTrajectory.plan(HANDOFF, L4);
+
+    // Straight there would cross the region, so it has to stop at the corner on the way
+    List<Leg> legs = trajectory.getLegs();
+    assertEquals(2, legs.size());
+    assertEquals(BoathookConstants.MIN_EXTENDED_ANGLE, legs.get(0).end().angle(), EPSILON);
+    assertEquals(BoathookConstants.MAX_STOWED_EXTENSION, legs.get(0).end().length(), EPSILON);
+
+    // Extension is past the forward soft limit
+    assertEquals(L4.angle(), trajectory.getEnd().angle(), EPSILON);
+    assertEquals(BoathookConstants.EXTENDER_FORWARD_LIMIT, trajectory.getEnd().length(), EPSILON);
+    checkSamples(trajectory, 0.0);
+  }
+
+  @Test
+  void retractFromL4GoesAroundIntake() {
+    State start = new State(L4.angle(), BoathookConstants.EXTENDER_FORWARD_LIMIT);
+    BoathookTrajectory trajectory = BoathookTrajectory.plan(start, HANDOFF);
+
+    assertEquals(2, trajectory.getLegs().size());
+    assertEquals(HANDOFF, trajectory.getEnd());
+    checkSamples(trajectory, 0.0);
+  }
+
+  @Test
+  void retractL4PullsOffBeforeRotating() {
+    State start = new State(L4.angle(), BoathookConstants.EXTENDER_FORWARD_LIMIT);
+    BoathookTrajectory trajectory =
+        BoathookTrajectory.plan(
+            start, new State(97, 2.45), new State(93, 2.45), new State(93, 0.2), HANDOFF);
+
+    List<Leg> legs = trajectory.getLegs();
+    assertEquals(4, legs.size());
+    assertEquals(legs.get(0).start().angle(), legs.get(0).end().angle(), EPSILON);
+    checkSamples(trajectory, 0.0);
+  }
+
+  @Test
+  void clampsGoalsToSoftLimits() {
+    State start = new State(120, 0.93);
+    BoathookTrajectory trajectory = BoathookTrajectory.plan(start, new State(144, -1.0));
+
+    assertEquals(MAX_ANGLE, trajectory.getEnd().angle(), EPSILON);
+    assertEquals(BoathookConstants.EXTENDER_REVERSE_LIMIT, trajectory.getEnd().length(), EPSILON);
+    checkSamples(trajectory, 0.0);
+  }
+
+  @Test
+  void pullsInWhenStartingOverIntake() {
+    State start = new State(60, 1.0);
+    BoathookTrajectory trajectory = BoathookTrajectory.plan(start, L4);
+
+    // The first leg only retracts, since the hook is already where it shouldn't be
+    Leg first = trajectory.getLegs().get(0);
+    assertEquals(start.angle(), first.end().angle(), EPSILON);
+    assertEquals(BoathookConstants.MAX_STOWED_EXTENSION, first.end().length(), EPSILON);
+    checkSamples(trajectory, first.duration());
+  }
+
+  @Test
+  void emptyWhenAlreadyAtGoal() {
+    BoathookTrajectory trajectory = BoathookTrajectory.plan(HANDOFF, HANDOFF);
+
+    assertTrue(trajectory.getLegs().isEmpty());
+    assertEquals(0.0, trajectory.getTotalTimeSeconds());
+    assertEquals(HANDOFF, trajectory.sample(0.0));
+  }
+
+  /**
+   * Samples the whole move. Legs have to follow each other without gaps, start and end at rest on
+   * their end points, and keep both axes within their limits, and from the given time on no sample
+   * may be over the intake.
+   */
+  private static void checkSamples(BoathookTrajectory trajectory, double keepOutFromTime) {
+    double time = 0.0;
+    for (Leg leg : trajectory.getLegs()) {
+      assertEquals(time, leg.startTime(), EPSILON);
+      assertTrue(leg.duration() > 0.0, "Leg takes " + leg.duration() + " s");
+      assertAt(leg.start(), trajectory.sample(leg.startTime()));
+      assertTrue(leg.angularVelocity() <= MAX_ANGULAR_VELOCITY + EPSILON);
+      assertTrue(leg.angularAcceleration() <= MAX_ANGULAR_ACCELERATION + EPSILON);
+      assertTrue(leg.lengthVelocity() <= BoathookConstants.EXTENDER_MAX_VELOCITY + EPSILON);
+      assertTrue(leg.lengthAcceleration() <= BoathookConstants.EXTENDER_MAX_ACCELERATION + EPSILON);
+      time += leg.duration();
+    }
+    assertEquals(time, trajectory.getTotalTimeSeconds(), EPSILON);
+    assertAt(trajectory.getEnd(), trajectory.sample(time + 1.0));
+
+    State previous = null;
+    double previousAngularVelocity = 0.0;
+    double previousLengthVelocity = 0.0;
+    for (double t = 0.0; t <= time + SAMPLE_PERIOD_SECS; t += SAMPLE_PERIOD_SECS) {
+      State state = trajectory.sample(t);
+      if (t >= keepOutFromTime) {
+        assertFalse(
+            state.angle() < BoathookConstants.MIN_EXTENDED_ANGLE - EPSILON
+                && state.length() > BoathookConstants.MAX_STOWED_EXTENSION + EPSILON,
+            "Over the intake at " + state + " after " + t + " s");
+      }
+      assertTrue(state.angle() >= -EPSILON && state.angle() <= MAX_ANGLE + EPSILON);
+      assertTrue(
+          state.length() >= BoathookConstants.EXTENDER_REVERSE_LIMIT - EPSILON
+              && state.length() <= BoathookConstants.EXTENDER_FORWARD_LIMIT + EPSILON);
+
+      // Finite differences stay within the limits, so the profile has no jumps
+      if (previous != null) {
+        double angularVelocity = (state.angle() - previous.angle()) / SAMPLE_PERIOD_SECS;
+        double lengthVelocity = (state.length() - previous.length()) / SAMPLE_PERIOD_SECS;
+        assertTrue(
+            Math.abs(angularVelocity) <= MAX_ANGULAR_VELOCITY * 1.01,
+            "Rotating at " + angularVelocity + " deg/s after " + t + " s");
+        assertTrue(
+            Math.abs(lengthVelocity) <= BoathookConstants.EXTENDER_MAX_VELOCITY * 1.01,
+            "Extending at " + lengthVelocity + " rot/s after " + t + " s");
+        assertTrue(
+            Math.abs(angularVelocity - previousAngularVelocity)
+                <= MAX_ANGULAR_ACCELERATION * SAMPLE_PERIOD_SECS * 1.01,
+            "Rotation jumped after " + t + " s");
+        assertTrue(
+            Math.abs(lengthVelocity - previousLengthVelocity)
+                <= BoathookConstants.EXTENDER_MAX_ACCELERATION * SAMPLE_PERIOD_SECS * 1.01,
+            "Extension jumped after " + t + " s");
+        previousAngularVelocity = angularVelocity;
+        previousLengthVelocity = lengthVelocity;
+      }
+      previous = state;
+    }
+  }
+
+  private static void assertAt(State expected, State actual) {
+    assertTrue(isSame(expected, actual), "Expected " + expected + " but was " + actual);
+  }
+
+  private static boolean isSame(State a, State b) {
+    return Math.abs(a.angle() - b.angle()) < EPSILON && Math.abs(a.length() - b.length()) < EPSILON;
+  }
+}
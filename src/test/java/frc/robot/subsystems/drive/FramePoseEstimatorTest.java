@@ -0,0 +1,133 @@
+package frc.robot.subsystems.drive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Transform2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks {@link FramePoseEstimator} against WPILib's SwerveDrivePoseEstimator, fed the same samples
+ * the way Drive used to feed it, through turning, vision measurements and a reset.
+ */
+class FramePoseEstimatorTest {
+  private static final double SAMPLE_PERIOD_SECS = 0.004;
+  private static final int SAMPLES_PER_CYCLE = 5;
+  private static final double EPSILON = 1e-9;
+
+  // Slightly off center, so the kinematics aren't symmetric
+  private static final Translation2d[] MODULE_TRANSLATIONS = {
+    new Translation2d(0.30, 0.28),
+    new Translation2d(0.30, -0.28),
+    new Translation2d(-0.32, 0.28),
+    new Translation2d(-0.32, -0.28)
+  };
+
+  private final SwerveDriveKinematics kinematics = new SwerveDriveKinematics(MODULE_TRANSLATIONS);
+  private final FramePoseEstimator estimator =
+      new FramePoseEstimator(MODULE_TRANSLATIONS, 1.0 / SAMPLE_PERIOD_SECS);
+  private final OdometryFrame frame = new OdometryFrame(SAMPLES_PER_CYCLE);
+
+  // Reference estimator and its inputs
+  private Rotation2d rawGyroRotation = new Rotation2d();
+  private SwerveModulePosition[] modulePositions = {
+    new SwerveModulePosition(),
+    new SwerveModulePosition(),
+    new SwerveModulePosition(),
+    new SwerveModulePosition()
+  };
+  private final SwerveDrivePoseEstimator expected =
+      new SwerveDrivePoseEstimator(kinematics, rawGyroRotation, modulePositions, new Pose2d());
+
+  private int sample = 0;
+
+  @Test
+  void matchesWpilibWithGyro() {
+    run(true);
+  }
+
+  @Test
+  void matchesWpilibWithoutGyro() {
+    run(false);
+  }
+
+  private void run(boolean gyroConnected) {
+    for (int cycle = 0; cycle < 200; cycle++) {
+      fillCycle(gyroConnected);
+      estimator.update(frame, gyroConnected);
+      assertMatches("after cycle " + cycle);
+
+      // Vision lags by a few samples and disagrees a little with odometry
+      if (cycle % 3 == 0) {
+        double timestamp = (sample - 7) * SAMPLE_PERIOD_SECS;
+        Pose2d visionPose =
+            expected
+                .getEstimatedPosition()
+                .plus(new Transform2d(0.05, -0.03, Rotation2d.fromDegrees(2.0)));
+        var stdDevs = VecBuilder.fill(0.4 + 0.01 * cycle, 0.5, 1.5);
+        expected.addVisionMeasurement(visionPose, timestamp, stdDevs);
+        estimator.addVisionMeasurement(visionPose, timestamp, stdDevs);
+        assertMatches("after vision at cycle " + cycle);
+      }
+
+      if (cycle == 120) {
+        Pose2d pose = new Pose2d(4.0, 2.0, Rotation2d.fromDegrees(-135.0));
+        expected.resetPosition(rawGyroRotation, modulePositions, pose);
+        estimator.resetPose(pose);
+        assertMatches("after reset");
+      }
+    }
+  }
+
+  /** Fills one cycle of samples and feeds each to the reference estimator. */
+  private void fillCycle(boolean gyroConnected) {
+    frame.clear();
+    for (int i = 0; i < SAMPLES_PER_CYCLE; i++) {
+      sample++;
+      double timestamp = sample * SAMPLE_PERIOD_SECS;
+      int index = frame.addFrame(timestamp);
+
+      // Each module steers and drives a little differently while the robot spins
+      SwerveModulePosition[] positions = new SwerveModulePosition[4];
+      SwerveModulePosition[] deltas = new SwerveModulePosition[4];
+      for (int module = 0; module < 4; module++) {
+        double distanceMeters = modulePositions[module].distanceMeters + 0.008 + 0.002 * module;
+        double angleRad = Math.sin(sample * 0.01 + module) * 2.5;
+        frame.set(index, OdometryFrame.Column.DRIVE_POSITION, module, distanceMeters);
+        frame.set(index, OdometryFrame.Column.TURN_POSITION, module, angleRad);
+        positions[module] = new SwerveModulePosition(distanceMeters, new Rotation2d(angleRad));
+        deltas[module] =
+            new SwerveModulePosition(
+                distanceMeters - modulePositions[module].distanceMeters, positions[module].angle);
+      }
+      double yawRad = sample * 0.006;
+      frame.set(index, OdometryFrame.Column.YAW, 0, yawRad);
+
+      if (gyroConnected) {
+        rawGyroRotation = new Rotation2d(yawRad);
+      } else {
+        rawGyroRotation = rawGyroRotation.plus(new Rotation2d(kinematics.toTwist2d(deltas).dtheta));
+      }
+      modulePositions = positions;
+      expected.updateWithTime(timestamp, rawGyroRotation, positions);
+    }
+  }
+
+  private void assertMatches(String when) {
+    Pose2d expectedPose = expected.getEstimatedPosition();
+    Pose2d actualPose = estimator.getEstimatedPosition();
+    assertEquals(expectedPose.getX(), actualPose.getX(), EPSILON, "X " + when);
+    assertEquals(expectedPose.getY(), actualPose.getY(), EPSILON, "Y " + when);
+    assertEquals(
+        0.0,
+        expectedPose.getRotation().minus(actualPose.getRotation()).getRadians(),
+        EPSILON,
+        "Heading " + when);
+  }
+}
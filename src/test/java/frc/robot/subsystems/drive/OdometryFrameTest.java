@@ -0,0 +1,95 @@
+package frc.robot.subsystems.drive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import edu.wpi.first.hal.HAL;
+import java.lang.management.ManagementFactory;
+import org.junit.jupiter.api.Test;
+
+class OdometryFrameTest {
+  private static final int SAMPLES_PER_CYCLE = 5;
+  private static final com.sun.management.ThreadMXBean THREADS =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  private final OdometryFrame frame = new OdometryFrame(SAMPLES_PER_CYCLE);
+  private double timestamp = 0.0;
+  private double distanceMeters = 0.0;
+  private double angleRad = 0.0;
+  private boolean gyroConnected = true;
+
+  @Test
+  void keepsColumnsPerFrame() {
+    fillCycle();
+
+    assertEquals(SAMPLES_PER_CYCLE, frame.getFrameCount());
+    assertEquals(-1, frame.addFrame(1.0), "Batch is full");
+    for (int module = 0; module < OdometryFrame.MODULE_COUNT; module++) {
+      assertEquals(0.02, frame.getDrivePositionMeters(1, module), 1e-9);
+      assertEquals(0.004 + 0.1 * module, frame.getTurnPositionRad(1, module), 1e-9);
+    }
+    assertEquals(0.004, frame.getYawPositionRad(1), 1e-9);
+
+    // A reused frame starts out zeroed
+    frame.clear();
+    int index = frame.addFrame(2.0);
+    assertEquals(0.0, frame.getDrivePositionMeters(index, 0));
+    assertEquals(0.0, frame.getYawPositionRad(index));
+  }
+
+  @Test
+  void turningOdometryUpdateAllocatesNothing() {
+    HAL.initialize(500, 0);
+    Drive drive =
+        new Drive(
+            new GyroIO() {
+              @Override
+              public void updateInputs(GyroIOInputs inputs) {
+                inputs.connected = gyroConnected;
+              }
+            },
+            new ModuleIO() {},
+            new ModuleIO() {},
+            new ModuleIO() {},
+            new ModuleIO() {});
+
+    for (boolean connected : new boolean[] {true, false}) {
+      gyroConnected = connected;
+      drive.periodic(); // Pulls the gyro connection state into the drive
+
+      // Let the JIT compile the loop before measuring
+      for (int i = 0; i < 20000; i++) {
+        fillCycle();
+        drive.updateOdometry(frame);
+      }
+
+      long before = THREADS.getCurrentThreadAllocatedBytes();
+      for (int i = 0; i < 1000; i++) {
+        fillCycle();
+        drive.updateOdometry(frame);
+      }
+      long allocated = THREADS.getCurrentThreadAllocatedBytes() - before;
+
+      assertEquals(
+          0, allocated, "Bytes allocated over 1000 cycles with gyro connected " + connected);
+    }
+  }
+
+  /**
+   * Fills one cycle of samples with the wheels rolling forward while the robot turns, so every
+   * module angle and the yaw change on every sample.
+   */
+  private void fillCycle() {
+    frame.clear();
+    for (int i = 0; i < SAMPLES_PER_CYCLE; i++) {
+      timestamp += 0.004;
+      distanceMeters += 0.01;
+      angleRad += 0.002;
+      int index = frame.addFrame(timestamp);
+      for (int module = 0; module < OdometryFrame.MODULE_COUNT; module++) {
+        frame.set(index, OdometryFrame.Column.DRIVE_POSITION, module, distanceMeters);
+        frame.set(index, OdometryFrame.Column.TURN_POSITION, module, angleRad + 0.1 * module);
+      }
+      frame.set(index, OdometryFrame.Column.YAW, 0, angleRad);
+    }
+  }
+}
@@ -0,0 +1,120 @@
+package frc.robot.util;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Time-to-align benchmark for {@link FinalApproachController}. A kinematic robot that follows each
+ * command exactly, one loop after it is calculated, is stepped from a path handoff until the
+ * controller reports settled, on simulated time so results are the same on every machine.
+ */
+class FinalApproachControllerTest {
+  private static final double LOOP_PERIOD_SECS = 0.02;
+  private static final double MAX_TIME_SECS = 5.0;
+
+  // Profile speed limit plus a little for the proportional correction
+  private static final double MAX_SPEED = 2.1;
+  private static final double MAX_OVERSHOOT_METERS = 0.02;
+
+  private final FinalApproachController controller = new FinalApproachController();
+
+  // Largest distance past the goal along the approach, and off the straight line to it
+  private double overshoot;
+  private double lineError;
+  private double peakSpeed;
+
+  @BeforeEach
+  void setup() {
+    HAL.initialize(500, 0);
+    SimHooks.pauseTiming();
+  }
+
+  @AfterEach
+  void cleanup() {
+    SimHooks.resumeTiming();
+  }
+
+  @Test
+  void settlesFromPathHandoff() {
+    double settleTime = run(new Pose2d(), 1.2, new Pose2d(1.5, 1.0, Rotation2d.fromDegrees(30.0)));
+
+    assertTrue(settleTime < 1.6, "Settled after " + settleTime + " s");
+    assertTrue(overshoot < MAX_OVERSHOOT_METERS, "Overshot by " + overshoot + " m");
+    assertTrue(lineError < 0.01, "Left the line by " + lineError + " m");
+    assertTrue(peakSpeed < MAX_SPEED, "Reached " + peakSpeed + " m/s");
+  }
+
+  @Test
+  void diagonalApproachKeepsOneSpeedLimit() {
+    double settleTime = run(new Pose2d(), 0.0, new Pose2d(2.0, 2.0, Rotation2d.fromDegrees(90.0)));
+
+    assertTrue(settleTime < 2.4, "Settled after " + settleTime + " s");
+    assertTrue(overshoot < MAX_OVERSHOOT_METERS, "Overshot by " + overshoot + " m");
+    assertTrue(lineError < 0.01, "Left the line by " + lineError + " m");
+    assertTrue(peakSpeed < MAX_SPEED, "Reached " + peakSpeed + " m/s");
+  }
+
+  @Test
+  void settlesOnShortCorrection() {
+    double settleTime = run(new Pose2d(), 0.5, new Pose2d(0.3, 0.1, Rotation2d.fromDegrees(5.0)));
+
+    assertTrue(settleTime < 0.9, "Settled after " + settleTime + " s");
+    assertTrue(overshoot < MAX_OVERSHOOT_METERS, "Overshot by " + overshoot + " m");
+  }
+
+  /**
+   * Runs an approach handed off at the given speed towards the goal.
+   *
+   * @return Seconds until the controller reports settled
+   */
+  private double run(Pose2d start, double handoffSpeed, Pose2d goal) {
+    Translation2d toGoal = goal.getTranslation().minus(start.getTranslation());
+    Translation2d direction = toGoal.div(toGoal.getNorm());
+    ChassisSpeeds velocity =
+        new ChassisSpeeds(direction.getX() * handoffSpeed, direction.getY() * handoffSpeed, 0.0);
+    ChassisSpeeds pendingCommand = velocity;
+    Pose2d pose = start;
+    overshoot = Double.NEGATIVE_INFINITY;
+    lineError = 0.0;
+    peakSpeed = 0.0;
+
+    controller.reset(pose, velocity, goal);
+    for (double time = 0.0; time < MAX_TIME_SECS; time += LOOP_PERIOD_SECS) {
+      ChassisSpeeds command = controller.calculate(pose, velocity);
+      if (controller.isSettled()) {
+        return time;
+      }
+
+      // The previous command takes effect for this loop
+      velocity = pendingCommand;
+      pendingCommand = command;
+      pose =
+          new Pose2d(
+              pose.getX() + velocity.vxMetersPerSecond * LOOP_PERIOD_SECS,
+              pose.getY() + velocity.vyMetersPerSecond * LOOP_PERIOD_SECS,
+              pose.getRotation()
+                  .plus(Rotation2d.fromRadians(velocity.omegaRadiansPerSecond * LOOP_PERIOD_SECS)));
+      SimHooks.stepTiming(LOOP_PERIOD_SECS);
+
+      Translation2d error = pose.getTranslation().minus(goal.getTranslation());
+      overshoot =
+          Math.max(overshoot, error.getX() * direction.getX() + error.getY() * direction.getY());
+      lineError =
+          Math.max(
+              lineError,
+              Math.abs(error.getY() * direction.getX() - error.getX() * direction.getY()));
+      peakSpeed =
+          Math.max(peakSpeed, Math.hypot(velocity.vxMetersPerSecond, velocity.vyMetersPerSecond));
+    }
+    return Double.POSITIVE_INFINITY;
+  }
+}